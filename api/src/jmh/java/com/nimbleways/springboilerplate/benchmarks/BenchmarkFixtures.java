@@ -0,0 +1,59 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared setup for the benchmarks. Products cycle through NORMAL, SEASONAL and EXPIRABLE and are
+ * all sellable today, so every item goes through the regular stock decrement.
+ */
+final class BenchmarkFixtures {
+
+    static final String LOGBACK_CONFIGURATION = "-Dlogback.configurationFile=logback-benchmark.xml";
+
+    static final int STOCK = 1_000_000_000;
+
+    /**
+     * Days from today to the end of the products' season and to their expiry, and since the season start.
+     */
+    static final int SEASON_DAYS = 30;
+
+    private static final ProductType[] TYPES = ProductType.builtIn().toArray(new ProductType[0]);
+
+    private BenchmarkFixtures() {
+    }
+
+    static Set<Product> mixedProducts(int count, long firstId) {
+        LocalDate today = LocalDate.now();
+        Set<Product> products = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Long id = firstId < 0 ? null : firstId + i;
+            products.add(new Product(id, 5, STOCK, TYPES[i % TYPES.length], "Product " + i,
+                    today.plusDays(SEASON_DAYS), today.minusDays(SEASON_DAYS), today.plusDays(SEASON_DAYS), null));
+        }
+        return products;
+    }
+
+    /**
+     * A stub answering the given methods by name with fixed results. Mockito is not used here because
+     * it captures a stack trace on every invocation, which would dominate the measurements.
+     */
+    static <T> T stub(Class<T> type, Map<String, Object> results) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (results.containsKey(method.getName())) {
+                return results.get(method.getName());
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.getName().equals("equals") ? proxy == args[0] : method.invoke(results, args);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        });
+        return type.cast(stub);
+    }
+}
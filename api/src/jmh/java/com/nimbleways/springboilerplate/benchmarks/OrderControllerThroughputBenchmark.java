@@ -0,0 +1,100 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end throughput of {@code POST /orders/{id}/processOrder}: HTTP, controller, JPA and the
+ * embedded H2 database, with several client threads cycling over a pool of seeded orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class OrderControllerThroughputBenchmark {
+
+    private static final int ORDER_POOL_SIZE = 256;
+
+    @Param({"1", "10", "100"})
+    private int itemsPerOrder;
+
+    private final AtomicInteger nextOrder = new AtomicInteger();
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI[] orderUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        // Orders are cycled over, so repeats would otherwise be answered without processing
+                        "orders.idempotency.enabled=false",
+                        "logging.config=classpath:logback-benchmark.xml")
+                .run();
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+        orderUris = new URI[ORDER_POOL_SIZE];
+        for (int i = 0; i < ORDER_POOL_SIZE; i++) {
+            Order order = new Order(null, BenchmarkFixtures.mixedProducts(itemsPerOrder, -1));
+            productRepository.saveAll(order.getItems());
+            Long orderId = orderRepository.save(order).getId();
+            orderUris[i] = URI.create("http://localhost:" + port + contextPath + "/orders/" + orderId + "/processOrder");
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int processOrder() throws IOException, InterruptedException {
+        URI uri = orderUris[Math.floorMod(nextOrder.getAndIncrement(), ORDER_POOL_SIZE)];
+        HttpResponse<Void> response = httpClient.send(
+                HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + uri);
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,202 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of {@code POST /orders/{id}/processOrder} comparing the blocking and async
+ * execution modes. Every simulated connection sends its next request as soon as the previous one
+ * answers; latency is recorded per request, failed and rejected (503) requests are counted apart.
+ * JMH is not a fit here since the point is thousands of requests in flight at once.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code modes=blocking,async connections=1000,5000,10000
+ * duration=30 items=10 output=target/load-test-result.json}. The open file limit must allow two sockets
+ * per connection.
+ */
+public final class OrderEndpointLoadTest {
+
+    private static final int ORDER_POOL_SIZE = 512;
+
+    private OrderEndpointLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "modes", "blocking,async",
+                "connections", "1000,5000,10000",
+                "duration", "30",
+                "items", "10",
+                "output", "target/load-test-result.json"));
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            options.put(keyValue[0], keyValue[1]);
+        }
+
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        int items = Integer.parseInt(options.get("items"));
+        List<Result> results = new ArrayList<>();
+        for (String mode : options.get("modes").split(",")) {
+            for (String connections : options.get("connections").split(",")) {
+                results.add(run(mode, Integer.parseInt(connections), duration, items));
+            }
+        }
+
+        System.out.printf("%n%-9s %12s %12s %10s %10s %10s %10s %10s%n",
+                "mode", "connections", "req/s", "p50 ms", "p99 ms", "max ms", "rejected", "errors");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-9s %12d %12.1f %10.1f %10.1f %10.1f %10d %10d%n",
+                    result.mode, result.connections, result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100),
+                    result.rejected, result.errors);
+        }
+
+        Path output = Path.of(options.get("output"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, toJson(results));
+        System.out.println("Results written to " + output);
+    }
+
+    private static Result run(String mode, int connections, Duration duration, int items) throws InterruptedException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "orders.execution.mode=" + mode,
+                        "server.port=0",
+                        // Let Tomcat hold every connection so that both modes are compared on threads only
+                        "server.tomcat.max-connections=" + (connections + 1_000),
+                        "server.tomcat.accept-count=" + connections,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + "-" + connections + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        // Orders are cycled over, so repeats would otherwise be answered without processing
+                        "orders.idempotency.enabled=false",
+                        "logging.config=classpath:logback-benchmark.xml")
+                .run();
+        try {
+            URI[] orderUris = seedOrders(context, items);
+            System.out.printf("Running %s mode with %d connections for %ss%n", mode, connections, duration.toSeconds());
+            return drive(mode, connections, duration, orderUris);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static URI[] seedOrders(ConfigurableApplicationContext context, int items) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        OrderRepository orderRepository = context.getBean(OrderRepository.class);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+        URI[] orderUris = new URI[ORDER_POOL_SIZE];
+        for (int i = 0; i < ORDER_POOL_SIZE; i++) {
+            Order order = new Order(null, BenchmarkFixtures.mixedProducts(items, -1));
+            productRepository.saveAll(order.getItems());
+            Long orderId = orderRepository.save(order).getId();
+            orderUris[i] = URI.create("http://localhost:" + port + contextPath + "/orders/" + orderId + "/processOrder");
+        }
+        return orderUris;
+    }
+
+    private static Result drive(String mode, int connections, Duration duration, URI[] orderUris)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+        AtomicInteger nextOrder = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(connections);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        Runnable[] loops = new Runnable[connections];
+        for (int i = 0; i < connections; i++) {
+            int connection = i;
+            loops[i] = () -> {
+                if (System.nanoTime() >= deadline) {
+                    done.countDown();
+                    return;
+                }
+
+                URI uri = orderUris[Math.floorMod(nextOrder.getAndIncrement(), orderUris.length)];
+                long start = System.nanoTime();
+                httpClient.sendAsync(HttpRequest.newBuilder(uri)
+                                        .timeout(Duration.ofMinutes(1))
+                                        .POST(HttpRequest.BodyPublishers.noBody())
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            if (error != null || response.statusCode() >= 500 && response.statusCode() != 503) {
+                                errors.incrementAndGet();
+                            } else if (response.statusCode() == 503) {
+                                rejected.incrementAndGet();
+                            } else {
+                                latencies.recordValue(Math.min(System.nanoTime() - start, latencies.getHighestTrackableValue()));
+                                completed.incrementAndGet();
+                            }
+                            loops[connection].run();
+                        });
+            };
+        }
+
+        long startedAt = System.nanoTime();
+        Arrays.stream(loops).forEach(Runnable::run);
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+        return new Result(mode, connections, completed.get(), rejected.get(), errors.get(), elapsedSeconds, latencies);
+    }
+
+    private static String toJson(List<Result> results) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append(String.format(Locale.ROOT,
+                    "  {\"mode\": \"%s\", \"connections\": %d, \"completed\": %d, \"rejected\": %d, \"errors\": %d, "
+                            + "\"throughput\": %.1f, \"p50Millis\": %.2f, \"p99Millis\": %.2f, \"maxMillis\": %.2f}%s%n",
+                    result.mode, result.connections, result.completed, result.rejected, result.errors,
+                    result.throughput(), result.percentileMillis(50), result.percentileMillis(99),
+                    result.percentileMillis(100), i < results.size() - 1 ? "," : ""));
+        }
+        return json.append("]\n").toString();
+    }
+
+    private record Result(String mode, int connections, long completed, long rejected, long errors,
+                          double elapsedSeconds, Histogram latencies) {
+
+        double throughput() {
+            return completed / elapsedSeconds;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
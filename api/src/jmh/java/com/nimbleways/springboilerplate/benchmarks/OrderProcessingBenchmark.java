@@ -0,0 +1,189 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.config.NotificationDispatchProperties;
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.config.StockCacheProperties;
+import com.nimbleways.springboilerplate.config.StockLedgerProperties;
+import com.nimbleways.springboilerplate.config.StockReservationProperties;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.StockReservationRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.implementations.DirectOrderProcessingContext;
+import com.nimbleways.springboilerplate.services.implementations.HotStockCache;
+import com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor;
+import com.nimbleways.springboilerplate.services.implementations.OptimisticLockRetry;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.implementations.ParallelItemProcessor;
+import com.nimbleways.springboilerplate.services.implementations.ProductCache;
+import com.nimbleways.springboilerplate.services.implementations.ProductLockManager;
+import com.nimbleways.springboilerplate.services.implementations.ProductUnitOfWork;
+import com.nimbleways.springboilerplate.services.implementations.ReservationService;
+import com.nimbleways.springboilerplate.services.implementations.StockService;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.notifications.NotificationDispatcher;
+import com.nimbleways.springboilerplate.strategies.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.strategies.NormalProductStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
+import com.nimbleways.springboilerplate.strategies.SeasonalProductStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderProcessingService#processOrder} on orders mixing the three product types, with the real
+ * strategies and stock/notification services but stubbed repositories and a transaction manager that
+ * does nothing. This isolates the CPU and allocation cost of the pipeline from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class OrderProcessingBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int itemCount;
+
+    /**
+     * {@code mid-season} sells every item; {@code season-end} pins the clock to the day the fixtures'
+     * seasons end and their products expire, so that seasonal and expirable items are refused.
+     */
+    @Param({"mid-season", "season-end"})
+    private String day;
+
+    private OrderProcessingService orderProcessingService;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductRepository productRepository = BenchmarkFixtures.stub(ProductRepository.class, Map.of("decrementAvailableBy", 1));
+        OrderRepository orderRepository = BenchmarkFixtures.stub(OrderRepository.class, Map.of());
+        OrderLineRepository orderLineRepository = BenchmarkFixtures.stub(OrderLineRepository.class,
+                Map.of("findAllWithProductByOrderIdIn", List.of()));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+        HotStockCache hotStockCache = new HotStockCache(productRepository, transactionTemplate, new StockCacheProperties());
+        ProductCache productCache = new ProductCache(productRepository, hotStockCache, new ProductCacheProperties(),
+                meterRegistry);
+        // The ledger appends through JDBC, StockLedgerBenchmark measures it on its own
+        StockLedgerProperties ledgerProperties = new StockLedgerProperties();
+        ledgerProperties.setEnabled(false);
+        StockLedger stockLedger = new StockLedger(null, transactionTemplate, hotStockCache, ledgerProperties,
+                Clock.systemUTC(), meterRegistry);
+        StockService stockService = new StockService(productRepository, hotStockCache,
+                new AcceptingJdbcTemplate(), productCache, stockLedger);
+        ProductUnitOfWork productUnitOfWork = new ProductUnitOfWork(productRepository, productCache, stockLedger);
+        NotificationDispatcher notificationDispatcher = new NotificationDispatcher(event -> { },
+                new NotificationDispatchProperties(), meterRegistry);
+
+        DirectOrderProcessingContext directContext = new DirectOrderProcessingContext(stockService, productUnitOfWork,
+                notificationDispatcher);
+        ProductStrategyFactory factory = new ProductStrategyFactory(List.of(
+                new NormalProductStrategy(), new SeasonalProductStrategy(), new ExpirableProductStrategy()));
+        OrderProcessingProperties properties = new OrderProcessingProperties();
+
+        OrderProcessingMetrics metrics = new OrderProcessingMetrics(meterRegistry);
+
+        orderProcessingService = new OrderProcessingService(factory, orderRepository, orderLineRepository,
+                transactionTemplate,
+                BenchmarkFixtures.stub(EntityManager.class, Map.of()),
+                new OptimisticLockRetry(properties, meterRegistry), properties, metrics,
+                new ParallelItemProcessor(properties, stockService, directContext, metrics),
+                new ProductLockManager(properties, meterRegistry),
+                new IdempotentOrderProcessor(BenchmarkFixtures.stub(ProcessedOrderRepository.class, Map.of()),
+                        transactionTemplate, new OptimisticLockRetry(properties, meterRegistry), properties,
+                        meterRegistry, Clock.systemUTC()),
+                new ReservationService(BenchmarkFixtures.stub(StockReservationRepository.class,
+                        Map.of("findByOrderIdInAndStatusIn", List.of())), productRepository, stockService,
+                        transactionTemplate, new StockReservationProperties(), Clock.systemUTC(), meterRegistry),
+                Clock.fixed(processingDay().atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+        order = new Order(1L, BenchmarkFixtures.mixedProducts(itemCount, 1L));
+    }
+
+    @Setup(Level.Iteration)
+    public void restock() {
+        for (Product product : order.getItems()) {
+            product.setAvailable(BenchmarkFixtures.STOCK);
+        }
+    }
+
+    private LocalDate processingDay() {
+        LocalDate today = LocalDate.now();
+        return day.equals("season-end") ? today.plusDays(BenchmarkFixtures.SEASON_DAYS) : today;
+    }
+
+    @Benchmark
+    public Order processOrder() {
+        orderProcessingService.processOrder(order);
+        return order;
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            // nothing to begin
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            // nothing to commit
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            // nothing to roll back
+        }
+    }
+
+    /**
+     * Accepts every batched decrement, as the stubbed product repository accepts single ones.
+     */
+    private static final class AcceptingJdbcTemplate extends JdbcTemplate {
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            int[] updated = new int[batchArgs.size()];
+            Arrays.fill(updated, 1);
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+import com.nimbleways.springboilerplate.strategies.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.strategies.NormalProductStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductAvailabilityStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
+import com.nimbleways.springboilerplate.strategies.SeasonalProductStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item cost of resolving the strategy for a product.
+ * <p>
+ * {@code legacy} reproduces the previous hot path: the type is kept as a string, upper-cased and parsed
+ * with {@code ProductType.valueOf}, and the dispatch map is rebuilt for every lookup. {@code current}
+ * reads the type mapped by {@link ProductTypeConverter} and looks it up in the factory's immutable table.
+ * Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductStrategyDispatchBenchmark {
+
+    private static final String[] STORED_TYPES = {"NORMAL", "seasonal", "Expirable"};
+
+    private NormalProductStrategy normalProductStrategy;
+    private SeasonalProductStrategy seasonalProductStrategy;
+    private ExpirableProductStrategy expirableProductStrategy;
+    private ProductStrategyFactory factory;
+    private Product[] products;
+
+    @Setup
+    public void setUp() {
+        normalProductStrategy = new NormalProductStrategy();
+        seasonalProductStrategy = new SeasonalProductStrategy();
+        expirableProductStrategy = new ExpirableProductStrategy();
+        factory = new ProductStrategyFactory(List.of(normalProductStrategy, seasonalProductStrategy, expirableProductStrategy));
+
+        ProductTypeConverter converter = new ProductTypeConverter(factory);
+        products = new Product[STORED_TYPES.length];
+        for (int i = 0; i < STORED_TYPES.length; i++) {
+            Product product = new Product();
+            product.setType(converter.convertToEntityAttribute(STORED_TYPES[i]));
+            products[i] = product;
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String type : STORED_TYPES) {
+            ProductType productType = ProductType.valueOf(type.toUpperCase());
+            Map<ProductType, ProductAvailabilityStrategy> strategies = Map.of(
+                    ProductType.NORMAL, normalProductStrategy,
+                    ProductType.SEASONAL, seasonalProductStrategy,
+                    ProductType.EXPIRABLE, expirableProductStrategy
+            );
+            blackhole.consume(strategies.get(productType));
+        }
+    }
+
+    @Benchmark
+    public void current(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(factory.getStrategy(product.getType()));
+        }
+    }
+}
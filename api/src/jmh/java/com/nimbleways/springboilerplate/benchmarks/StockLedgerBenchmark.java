@@ -0,0 +1,152 @@
+package com.nimbleways.springboilerplate.benchmarks;
+
+import com.nimbleways.springboilerplate.Application;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.ledger.StockLevel;
+import com.nimbleways.springboilerplate.services.ledger.StockMovementType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append throughput of the stock ledger, in movements per second, and the time taken to rebuild or
+ * replay it, with and without a snapshot covering most of it. Runs against the embedded H2 database.
+ */
+@Fork(value = 1, jvmArgsAppend = {BenchmarkFixtures.LOGBACK_CONFIGURATION, "-Xmx6g"})
+public class StockLedgerBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int APPEND_BATCH = 100;
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @OperationsPerInvocation(APPEND_BATCH)
+    public void append(AppendState state) {
+        state.transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < APPEND_BATCH; i++) {
+                state.stockLedger.recordChange(state.nextProductId(), StockMovementType.TAKEN, -1);
+            }
+        });
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public Map<Long, StockLevel> rebuild(RebuildState state) {
+        return state.stockLedger.rebuild();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public Map<Long, StockLevel> replayToday(RebuildState state) {
+        return state.stockLedger.replay(LocalDate.now());
+    }
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+        private ConfigurableApplicationContext context;
+        private StockLedger stockLedger;
+        private TransactionTemplate transactionTemplate;
+        private long next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = start("ledger-append");
+            stockLedger = context.getBean(StockLedger.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private long nextProductId() {
+            return next++ % PRODUCTS + 1;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RebuildState {
+
+        @Param({"10000000"})
+        private int events;
+
+        /**
+         * {@code none} replays the whole ledger; {@code 90%} snapshots the first nine tenths of it first.
+         */
+        @Param({"none", "90%"})
+        private String snapshot;
+
+        private ConfigurableApplicationContext context;
+        private StockLedger stockLedger;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = start("ledger-rebuild");
+            stockLedger = context.getBean(StockLedger.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            jdbcTemplate.update("insert into stock_movements (product_id, type, quantity, absolute, recorded_at)"
+                    + " select x, 'OPENING', ?, true, current_timestamp from system_range(1, ?)", events, PRODUCTS);
+            int snapshotted = snapshot.equals("none") ? 0 : events / 10 * 9;
+            appendTaken(jdbcTemplate, snapshotted);
+            if (snapshotted > 0) {
+                stockLedger.snapshot();
+            }
+            appendTaken(jdbcTemplate, events - snapshotted);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private static void appendTaken(JdbcTemplate jdbcTemplate, int count) {
+            jdbcTemplate.update("insert into stock_movements (product_id, type, quantity, absolute, recorded_at)"
+                    + " select mod(x, ?) + 1, 'TAKEN', -1, false, current_timestamp from system_range(1, ?)", PRODUCTS, count);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "products.sweep.enabled=false",
+                        // Snapshots are taken by the benchmark only, and right away
+                        "stock.ledger.snapshot-interval=1d",
+                        "stock.ledger.settle-lag=0s",
+                        "logging.config=classpath:logback-benchmark.xml")
+                .run();
+    }
+}
@@ -0,0 +1,35 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "notifications.dispatch")
+public class NotificationDispatchProperties {
+
+    /**
+     * Maximum number of notifications waiting to be sent; further notifications are dropped.
+     */
+    private int queueCapacity = 10_000;
+
+    private int workers = 2;
+
+    /**
+     * Maximum number of notifications a worker takes from the queue at once.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Identical notifications for the same product are sent at most once per window.
+     */
+    private Duration dedupWindow = Duration.ofMinutes(1);
+
+    /**
+     * How long shutdown waits for the queue to drain.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
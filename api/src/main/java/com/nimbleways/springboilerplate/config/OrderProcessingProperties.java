@@ -0,0 +1,133 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "orders")
+public class OrderProcessingProperties {
+
+    private final Batch batch = new Batch();
+
+    private final Retry retry = new Retry();
+
+    private final Execution execution = new Execution();
+
+    private final Parallel parallel = new Parallel();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final Locking locking = new Locking();
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Number of orders loaded and committed together by the batch endpoint.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+        /**
+         * Total number of attempts, including the first one, when an order hits an optimistic lock conflict.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Upper bound of the random delay before the first retry, doubled on every further retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(20);
+
+        private Duration maxBackoff = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class Parallel {
+        private boolean enabled = false;
+
+        /**
+         * Orders with at least this many items have their items processed in parallel.
+         */
+        private int threshold = 1_000;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        /**
+         * Whether a repeated request for an order already processed is answered without processing it again.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Recently processed orders answered from memory; older ones are looked up in processed_orders.
+         */
+        private int cacheSize = 10_000;
+
+        private Duration cacheTtl = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Locking {
+        /**
+         * Whether orders sharing a product are processed one at a time in this instance, instead of racing
+         * and retrying on optimistic lock conflicts.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Locks that products are spread over. Two products on the same stripe serialize their orders too,
+         * so more stripes mean fewer false conflicts for a few bytes each.
+         */
+        private int stripes = 1_024;
+
+        /**
+         * How long an order waits for the locks of its products before failing.
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(10);
+    }
+
+    public enum ExecutionMode {
+        /**
+         * The request thread processes the order.
+         */
+        BLOCKING,
+        /**
+         * The request thread is released and the order is processed on a bounded pool.
+         */
+        ASYNC
+    }
+
+    @Getter
+    @Setter
+    public static class Execution {
+        private ExecutionMode mode = ExecutionMode.BLOCKING;
+
+        /**
+         * Threads processing orders in the async mode. Each one holds a database connection while it works,
+         * so there is no point going above the connection pool size.
+         */
+        private int poolSize = 10;
+
+        /**
+         * Orders waiting for a thread in the async mode; further requests are rejected with 503.
+         */
+        private int queueCapacity = 1_000;
+
+        /**
+         * How long an async request waits for its order before answering 503.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+}
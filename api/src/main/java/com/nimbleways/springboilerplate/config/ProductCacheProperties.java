@@ -0,0 +1,29 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.cache")
+public class ProductCacheProperties {
+
+    /**
+     * Whether product lookups are served from memory; when disabled every lookup reads the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Products kept in memory, the least recently used ones being evicted first.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a product is served from memory. Stock changes made by this instance evict it right away;
+     * the time to live bounds how stale changes made by other instances or by hand can get.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
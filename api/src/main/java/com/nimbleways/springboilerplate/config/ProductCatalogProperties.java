@@ -0,0 +1,21 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.catalog")
+public class ProductCatalogProperties {
+
+    /**
+     * Rows held in memory and written together, in one transaction, by an import.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * Rows fetched from the database per round trip by an export.
+     */
+    private int fetchSize = 1_000;
+}
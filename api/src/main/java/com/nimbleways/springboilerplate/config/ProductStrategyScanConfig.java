@@ -0,0 +1,21 @@
+package com.nimbleways.springboilerplate.config;
+
+import com.nimbleways.springboilerplate.strategies.ProductTypeKey;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the classes annotated with {@link ProductTypeKey} found in the packages listed under
+ * {@code products.strategies.packages} as strategy beans, so that a jar adds product types by being on
+ * the classpath and having its package listed, without being under the application's package or
+ * declaring its strategies as components. The built-in strategies are components already.
+ */
+@Configuration
+@ConditionalOnProperty("products.strategies.packages")
+@ComponentScan(
+        basePackages = "${products.strategies.packages}",
+        useDefaultFilters = false,
+        includeFilters = @ComponentScan.Filter(ProductTypeKey.class))
+public class ProductStrategyScanConfig {
+}
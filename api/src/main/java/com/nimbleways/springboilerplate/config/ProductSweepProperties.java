@@ -0,0 +1,27 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.sweep")
+public class ProductSweepProperties {
+
+    /**
+     * Whether expired and out-of-season stock is zeroed in the background. Orders never take such stock
+     * either way, but without the sweep it stays in the products table and nobody is notified.
+     */
+    private boolean enabled = true;
+
+    /**
+     * When the sweep runs, as a Spring cron expression.
+     */
+    private String cron = "0 5 * * * *";
+
+    /**
+     * Products zeroed, and notified, per statement and transaction.
+     */
+    private int batchSize = 500;
+}
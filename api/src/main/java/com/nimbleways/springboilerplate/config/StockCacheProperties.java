@@ -0,0 +1,32 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stock.cache")
+public class StockCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Products whose stock is kept in memory; every other product goes straight to the database.
+     */
+    private Set<Long> hotProductIds = new HashSet<>();
+
+    /**
+     * Delay between two write-behind flushes of the in-memory stock to the products table.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Whether pending stock changes are written to the database when the application stops.
+     */
+    private boolean flushOnShutdown = true;
+}
@@ -0,0 +1,34 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stock.ledger")
+public class StockLedgerProperties {
+
+    /**
+     * Whether every change to the stock and lead time of products is appended to stock_movements.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between two snapshots of the ledger into stock_snapshots.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Movements more recent than this are left to the next snapshot, so that a transaction appending
+     * while a snapshot is taken is not skipped.
+     */
+    private Duration settleLag = Duration.ofSeconds(30);
+
+    /**
+     * Movements fetched per round trip when folding the ledger.
+     */
+    private int fetchSize = 10_000;
+}
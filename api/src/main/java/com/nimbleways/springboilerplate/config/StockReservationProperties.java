@@ -0,0 +1,29 @@
+package com.nimbleways.springboilerplate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stock.reservations")
+public class StockReservationProperties {
+
+    /**
+     * How long reserved units are held when the request does not say.
+     */
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    /**
+     * Longest hold a request may ask for.
+     */
+    private Duration maxTtl = Duration.ofHours(1);
+
+    /**
+     * Whether expired reservations give their units back in the background. Without it they stay held
+     * until released explicitly.
+     */
+    private boolean reclaimEnabled = true;
+}
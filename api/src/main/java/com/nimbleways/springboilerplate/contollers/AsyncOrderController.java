@@ -0,0 +1,73 @@
+package com.nimbleways.springboilerplate.contollers;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersResponse;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.implementations.OrderExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Same endpoints as {@link OrderController} for {@code orders.execution.mode=async}: the servlet thread
+ * is handed back to Tomcat right away and the order is loaded and processed on {@link OrderExecutor}.
+ * A request that times out gets a 503, but its order may still complete afterwards.
+ */
+@RestController
+@RequestMapping("/orders")
+@ConditionalOnProperty(prefix = "orders.execution", name = "mode", havingValue = "async")
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncOrderController {
+    private final OrderProcessingService orderProcessingService;
+    private final OrderExecutor orderExecutor;
+    private final OrderProcessingProperties properties;
+
+
+    @PostMapping("/{orderId}/processOrder")
+    @ResponseStatus(HttpStatus.OK)
+    public DeferredResult<ProcessOrderResponse> processOrder(@PathVariable Long orderId) {
+        log.info("Received request to process order ID: {}", orderId);
+
+        return defer(() -> orderProcessingService.processOrderById(orderId));
+    }
+
+    @PostMapping("/processOrders")
+    @ResponseStatus(HttpStatus.OK)
+    public DeferredResult<ProcessOrdersResponse> processOrders(@Valid @RequestBody ProcessOrdersRequest request) {
+        log.info("Received request to process {} orders", request.orderIds().size());
+
+        return defer(() -> ProcessOrdersResponse.of(orderProcessingService.processOrders(request.orderIds())));
+    }
+
+    private <T> DeferredResult<T> defer(Supplier<T> work) {
+        DeferredResult<T> result = new DeferredResult<>(properties.getExecution().getTimeout().toMillis());
+        result.onTimeout(() -> result.setErrorResult(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order processing timed out")));
+
+        try {
+            orderExecutor.submit(work).whenComplete((value, error) -> {
+                if (error == null) {
+                    result.setResult(value);
+                } else {
+                    result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many orders in progress, retry later");
+        }
+
+        return result;
+    }
+}
@@ -1,22 +1,26 @@
 package com.nimbleways.springboilerplate.contollers;
 
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersResponse;
 import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
-import com.nimbleways.springboilerplate.entities.Order;
-import com.nimbleways.springboilerplate.repositories.OrderRepository;
 import com.nimbleways.springboilerplate.services.OrderProcessingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/orders")
+@ConditionalOnProperty(prefix = "orders.execution", name = "mode", havingValue = "blocking", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class OrderController {
     private final OrderProcessingService orderProcessingService;
-    private final OrderRepository orderRepository;
 
 
     @PostMapping("/{orderId}/processOrder")
@@ -24,16 +28,20 @@ public class OrderController {
     public ProcessOrderResponse processOrder(@PathVariable Long orderId) {
         log.info("Received request to process order ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Order not found with id: " + orderId
-                ));
+        return orderProcessingService.processOrderById(orderId);
+    }
+
+    @PostMapping("/processOrders")
+    @ResponseStatus(HttpStatus.OK)
+    public ProcessOrdersResponse processOrders(@Valid @RequestBody ProcessOrdersRequest request) {
+        log.info("Received request to process {} orders", request.orderIds().size());
 
-        orderProcessingService.processOrder(order);
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(request.orderIds());
+        ProcessOrdersResponse response = ProcessOrdersResponse.of(results);
 
-        log.info("Successfully processed order ID: {}", orderId);
+        log.info("Processed batch: {} processed, {} not found, {} failed",
+                response.processed(), response.notFound(), response.failed());
 
-        return new ProcessOrderResponse(order.getId());
+        return response;
     }
 }
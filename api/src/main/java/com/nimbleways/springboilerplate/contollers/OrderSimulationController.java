@@ -0,0 +1,35 @@
+package com.nimbleways.springboilerplate.contollers;
+
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.SimulateOrdersResponse;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+/**
+ * Dry runs of the batch endpoint, available whatever the execution mode since nothing is written.
+ */
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderSimulationController {
+    private final OrderProcessingService orderProcessingService;
+
+    @PostMapping("/simulate")
+    @ResponseStatus(HttpStatus.OK)
+    public SimulateOrdersResponse simulateOrders(@Valid @RequestBody ProcessOrdersRequest request) {
+        log.info("Received request to simulate {} orders", request.orderIds().size());
+
+        SimulateOrdersResponse response = SimulateOrdersResponse.of(orderProcessingService.simulateOrders(request.orderIds()));
+
+        log.info("Simulated batch: {} processed, {} not found, {} failed, outcomes {}",
+                response.processed(), response.notFound(), response.failed(), response.outcomes());
+
+        return response;
+    }
+}
@@ -0,0 +1,65 @@
+package com.nimbleways.springboilerplate.contollers;
+
+import com.nimbleways.springboilerplate.dto.catalog.CatalogImportResult;
+import com.nimbleways.springboilerplate.services.catalog.CatalogFormat;
+import com.nimbleways.springboilerplate.services.catalog.ProductCatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Locale;
+
+/**
+ * Bulk catalog loads and dumps. The request and response bodies are streamed, never held in memory.
+ */
+@RestController
+@RequestMapping("/products/catalog")
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalogController {
+    private final ProductCatalogService productCatalogService;
+
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.OK)
+    public CatalogImportResult importCatalog(@RequestParam(defaultValue = "csv") String format,
+                                             HttpServletRequest request) throws IOException {
+        CatalogFormat catalogFormat = formatOf(format);
+        log.info("Received {} catalog import", catalogFormat);
+
+        try {
+            return productCatalogService.importCatalog(Channels.newChannel(request.getInputStream()), catalogFormat);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "csv") String format) {
+        CatalogFormat catalogFormat = formatOf(format);
+        log.info("Received {} catalog export", catalogFormat);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(catalogFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + catalogFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(output -> productCatalogService.exportCatalog(Channels.newChannel(output), catalogFormat));
+    }
+
+    private static CatalogFormat formatOf(String format) {
+        try {
+            return CatalogFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported catalog format: " + format);
+        }
+    }
+}
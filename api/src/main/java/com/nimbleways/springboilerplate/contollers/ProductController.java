@@ -0,0 +1,31 @@
+package com.nimbleways.springboilerplate.contollers;
+
+import com.nimbleways.springboilerplate.dto.product.ProductSnapshot;
+import com.nimbleways.springboilerplate.services.implementations.ProductCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Product lookups for the storefront, served from {@link ProductCache}.
+ */
+@RestController
+@RequestMapping("/products")
+@RequiredArgsConstructor
+public class ProductController {
+    private final ProductCache productCache;
+
+
+    @GetMapping("/{productId}")
+    public ProductSnapshot findById(@PathVariable Long productId) {
+        return productCache.findById(productId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + productId));
+    }
+
+    @GetMapping
+    public ProductSnapshot findByName(@RequestParam String name) {
+        return productCache.findByName(name)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with name: " + name));
+    }
+}
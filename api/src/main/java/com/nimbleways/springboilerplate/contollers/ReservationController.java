@@ -0,0 +1,77 @@
+package com.nimbleways.springboilerplate.contollers;
+
+import com.nimbleways.springboilerplate.dto.reservation.ReservationResponse;
+import com.nimbleways.springboilerplate.dto.reservation.ReserveStockRequest;
+import com.nimbleways.springboilerplate.entities.ReservationStatus;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+import com.nimbleways.springboilerplate.services.implementations.ReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+
+/**
+ * Holds stock during checkout: reserve units for an order, then confirm or release the reservation.
+ */
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+    private final ReservationService reservationService;
+
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ReservationResponse reserve(@Valid @RequestBody ReserveStockRequest request) {
+        try {
+            return reservationService.reserve(request.orderId(), request.productId(), request.quantity(), request.ttl())
+                    .map(ReservationResponse::of)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Not enough stock left for product " + request.productId()));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // The product was found, so the reservation can only miss its order
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: " + request.orderId());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{reservationId}")
+    public ReservationResponse find(@PathVariable Long reservationId) {
+        return ReservationResponse.of(findOrThrow(reservationId));
+    }
+
+    @PostMapping("/{reservationId}/confirm")
+    public ReservationResponse confirm(@PathVariable Long reservationId) {
+        if (!reservationService.confirm(reservationId)) {
+            throw notSettled(reservationId);
+        }
+        return ReservationResponse.of(findOrThrow(reservationId));
+    }
+
+    @DeleteMapping("/{reservationId}")
+    public ReservationResponse release(@PathVariable Long reservationId) {
+        if (!reservationService.release(reservationId)) {
+            throw notSettled(reservationId);
+        }
+        return ReservationResponse.of(findOrThrow(reservationId));
+    }
+
+    private StockReservation findOrThrow(Long reservationId) {
+        return reservationService.find(reservationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Reservation not found with id: " + reservationId));
+    }
+
+    private ResponseStatusException notSettled(Long reservationId) {
+        StockReservation reservation = findOrThrow(reservationId);
+        String state = reservation.getStatus() == ReservationStatus.HELD ? "expired" : reservation.getStatus().name();
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Reservation " + reservationId + " is " + state);
+    }
+}
@@ -0,0 +1,10 @@
+package com.nimbleways.springboilerplate.dto.catalog;
+
+import java.time.Duration;
+
+public record CatalogExportResult(long rows, long elapsedMillis, long rowsPerSecond) {
+
+    public static CatalogExportResult of(long rows, Duration elapsed) {
+        return new CatalogExportResult(rows, elapsed.toMillis(), rows * 1_000_000_000L / Math.max(1, elapsed.toNanos()));
+    }
+}
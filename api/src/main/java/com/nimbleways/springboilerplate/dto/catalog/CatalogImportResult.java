@@ -0,0 +1,12 @@
+package com.nimbleways.springboilerplate.dto.catalog;
+
+import java.time.Duration;
+
+public record CatalogImportResult(long rows, long inserted, long updated, long elapsedMillis, long rowsPerSecond) {
+
+    public static CatalogImportResult of(long inserted, long updated, Duration elapsed) {
+        long rows = inserted + updated;
+        return new CatalogImportResult(rows, inserted, updated, elapsed.toMillis(),
+                rows * 1_000_000_000L / Math.max(1, elapsed.toNanos()));
+    }
+}
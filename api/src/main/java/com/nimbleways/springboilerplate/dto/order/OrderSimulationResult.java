@@ -0,0 +1,18 @@
+package com.nimbleways.springboilerplate.dto.order;
+
+import java.util.List;
+
+public record OrderSimulationResult(Long orderId, OrderProcessingStatus status, String reason, List<SimulatedItem> items) {
+
+    public static OrderSimulationResult processed(Long orderId, List<SimulatedItem> items) {
+        return new OrderSimulationResult(orderId, OrderProcessingStatus.PROCESSED, null, items);
+    }
+
+    public static OrderSimulationResult notFound(Long orderId) {
+        return new OrderSimulationResult(orderId, OrderProcessingStatus.NOT_FOUND, "Order not found with id: " + orderId, List.of());
+    }
+
+    public static OrderSimulationResult failed(Long orderId, String reason) {
+        return new OrderSimulationResult(orderId, OrderProcessingStatus.FAILED, reason, List.of());
+    }
+}
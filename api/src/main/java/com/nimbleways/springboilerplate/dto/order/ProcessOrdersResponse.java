@@ -0,0 +1,19 @@
+package com.nimbleways.springboilerplate.dto.order;
+
+import java.util.List;
+
+public record ProcessOrdersResponse(long processed, long notFound, long failed, List<OrderProcessingResult> results) {
+
+    public static ProcessOrdersResponse of(List<OrderProcessingResult> results) {
+        return new ProcessOrdersResponse(
+                count(results, OrderProcessingStatus.PROCESSED),
+                count(results, OrderProcessingStatus.NOT_FOUND),
+                count(results, OrderProcessingStatus.FAILED),
+                results
+        );
+    }
+
+    private static long count(List<OrderProcessingResult> results, OrderProcessingStatus status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+}
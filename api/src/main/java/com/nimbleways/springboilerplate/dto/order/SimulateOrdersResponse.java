@@ -0,0 +1,30 @@
+package com.nimbleways.springboilerplate.dto.order;
+
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param outcomes the number of lines per outcome, across all orders
+ */
+public record SimulateOrdersResponse(long processed, long notFound, long failed,
+                                     Map<ProcessingOutcome, Long> outcomes, List<OrderSimulationResult> results) {
+
+    public static SimulateOrdersResponse of(List<OrderSimulationResult> results) {
+        Map<ProcessingOutcome, Long> outcomes = new EnumMap<>(ProcessingOutcome.class);
+        results.forEach(result -> result.items().forEach(item -> outcomes.merge(item.outcome(), 1L, Long::sum)));
+        return new SimulateOrdersResponse(
+                count(results, OrderProcessingStatus.PROCESSED),
+                count(results, OrderProcessingStatus.NOT_FOUND),
+                count(results, OrderProcessingStatus.FAILED),
+                outcomes,
+                results
+        );
+    }
+
+    private static long count(List<OrderSimulationResult> results, OrderProcessingStatus status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+}
@@ -0,0 +1,15 @@
+package com.nimbleways.springboilerplate.dto.order;
+
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+
+/**
+ * What processing would do to one line of an order.
+ *
+ * @param taken    the units that would ship now
+ * @param shortage the units that would not, {@code quantity - taken}
+ * @param leadTime the days the shortage would wait, for a {@link ProcessingOutcome#DELAYED} line or a
+ *                 {@link ProcessingOutcome#PARTIALLY_FULFILLED} one whose rest is delayed rather than out of stock
+ */
+public record SimulatedItem(Long productId, String productName, int quantity, int taken, int shortage,
+                            ProcessingOutcome outcome, Integer leadTime) {
+}
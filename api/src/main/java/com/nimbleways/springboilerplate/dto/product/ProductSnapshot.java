@@ -0,0 +1,19 @@
+package com.nimbleways.springboilerplate.dto.product;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+
+import java.time.LocalDate;
+
+public record ProductSnapshot(Long id, String name, ProductType type, Integer available, Integer leadTime,
+                              LocalDate expiryDate, LocalDate seasonStartDate, LocalDate seasonEndDate) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getType(), product.getAvailable(),
+                product.getLeadTime(), product.getExpiryDate(), product.getSeasonStartDate(), product.getSeasonEndDate());
+    }
+
+    public ProductSnapshot withAvailable(int available) {
+        return new ProductSnapshot(id, name, type, available, leadTime, expiryDate, seasonStartDate, seasonEndDate);
+    }
+}
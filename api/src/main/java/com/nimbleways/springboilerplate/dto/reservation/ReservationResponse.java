@@ -0,0 +1,15 @@
+package com.nimbleways.springboilerplate.dto.reservation;
+
+import com.nimbleways.springboilerplate.entities.ReservationStatus;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+
+import java.time.Instant;
+
+public record ReservationResponse(Long id, Long orderId, Long productId, int quantity, ReservationStatus status,
+                                  Instant expiresAt) {
+
+    public static ReservationResponse of(StockReservation reservation) {
+        return new ReservationResponse(reservation.getId(), reservation.getOrderId(), reservation.getProductId(),
+                reservation.getQuantity(), reservation.getStatus(), reservation.getExpiresAt());
+    }
+}
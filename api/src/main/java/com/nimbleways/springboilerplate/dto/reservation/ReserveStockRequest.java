@@ -0,0 +1,11 @@
+package com.nimbleways.springboilerplate.dto.reservation;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.Duration;
+
+/**
+ * @param ttl how long the units are held, the configured default when absent
+ */
+public record ReserveStockRequest(@NotNull Long orderId, @NotNull Long productId, @Positive int quantity, Duration ttl) {
+}
@@ -0,0 +1,38 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * A product ordered in some quantity. Orders that only have {@code order_items} rows are read as one
+ * line of quantity 1 per product.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_lines",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"order_id", "product_id"}))
+public class OrderLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    public static OrderLine singleUnit(Order order, Product product) {
+        return new OrderLine(null, order, product, 1);
+    }
+}
@@ -0,0 +1,25 @@
+package com.nimbleways.springboilerplate.entities;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Records that an order went through {@code POST /orders/{orderId}/processOrder}, in the same transaction
+ * as its stock changes, so that a repeated request does not process it again.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "processed_orders")
+public class ProcessedOrder {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+}
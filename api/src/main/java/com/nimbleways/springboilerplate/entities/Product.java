@@ -1,5 +1,6 @@
 package com.nimbleways.springboilerplate.entities;
 
+import com.nimbleways.springboilerplate.services.ledger.ProductLedgerListener;
 import lombok.*;
 
 import java.time.LocalDate;
@@ -7,6 +8,7 @@ import java.time.LocalDate;
 import javax.persistence.*;
 
 @Entity
+@EntityListeners(ProductLedgerListener.class)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -21,11 +23,13 @@ public class Product {
     @Column(name = "lead_time")
     private Integer leadTime;
 
-    @Column(name = "available")
+    // Only written through ProductRepository's conditional updates, see StockService
+    @Column(name = "available", updatable = false)
     private Integer available;
 
     @Column(name = "type")
-    private String type;
+    @Convert(converter = ProductTypeConverter.class)
+    private ProductType type;
 
     @Column(name = "name")
     private String name;
@@ -38,4 +42,8 @@ public class Product {
 
     @Column(name = "season_end_date")
     private LocalDate seasonEndDate;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
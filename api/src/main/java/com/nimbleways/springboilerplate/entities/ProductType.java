@@ -1,7 +1,76 @@
 package com.nimbleways.springboilerplate.entities;
 
-public enum ProductType {
-    NORMAL,
-    SEASONAL,
-    EXPIRABLE
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The kind of a product, which picks the strategy its orders go through. Unlike an enum the set of types
+ * is open: besides the built-in ones, every strategy registered under a new
+ * {@link com.nimbleways.springboilerplate.strategies.ProductTypeKey} adds a type, so adding one does not
+ * touch this class. Which types a deployment knows is up to its
+ * {@link com.nimbleways.springboilerplate.strategies.ProductStrategyFactory}; a type is only a name,
+ * compared by value.
+ */
+public final class ProductType {
+
+    public static final ProductType NORMAL = new ProductType("NORMAL");
+    public static final ProductType SEASONAL = new ProductType("SEASONAL");
+    public static final ProductType EXPIRABLE = new ProductType("EXPIRABLE");
+
+    private static final List<ProductType> BUILT_IN = List.of(NORMAL, SEASONAL, EXPIRABLE);
+
+    private final String name;
+
+    private ProductType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name the upper case name the type is stored under
+     * @return the built-in type of that name, or a type of that name whether or not any strategy handles it
+     * @throws IllegalArgumentException when the name is blank, padded or not upper case
+     */
+    @JsonCreator
+    public static ProductType valueOf(String name) {
+        if (name == null || name.isBlank() || !name.equals(name.trim().toUpperCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Product type names are upper case, without padding: '" + name + "'");
+        }
+
+        for (ProductType type : BUILT_IN) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        return new ProductType(name);
+    }
+
+    /**
+     * @return the types every deployment must have a strategy for
+     */
+    public static List<ProductType> builtIn() {
+        return BUILT_IN;
+    }
+
+    @JsonValue
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof ProductType type && name.equals(type.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
@@ -0,0 +1,46 @@
+package com.nimbleways.springboilerplate.entities;
+
+import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Locale;
+
+/**
+ * Stores {@link ProductType} by name. Reading is lenient with the case and padding of
+ * legacy rows written as free text before the column was normalized, and rejects the types
+ * no strategy of this deployment handles. Hibernate gets it from the application context.
+ */
+@Converter
+@Component
+public class ProductTypeConverter implements AttributeConverter<ProductType, String> {
+
+    private final ProductStrategyFactory productStrategyFactory;
+
+    public ProductTypeConverter(ProductStrategyFactory productStrategyFactory) {
+        this.productStrategyFactory = productStrategyFactory;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(ProductType type) {
+        return type != null ? type.name() : null;
+    }
+
+    @Override
+    public ProductType convertToEntityAttribute(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            ProductType type = ProductType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            if (!productStrategyFactory.productTypes().contains(type)) {
+                throw new IllegalArgumentException("No strategy registered for product type " + type);
+            }
+            return type;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid product type: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.nimbleways.springboilerplate.entities;
+
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    CONSUMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,35 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+
+    @Query("select l from OrderLine l join fetch l.product where l.order.id in :orderIds")
+    List<OrderLine> findAllWithProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * The products of the orders, whether they come from lines or from the {@code order_items} of older orders.
+     */
+    @Query(value = "select product_id from order_lines where order_id in (:orderIds)"
+            + " union select product_id from order_items where order_id in (:orderIds)", nativeQuery = true)
+    List<Long> findProductIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * The lines of the orders as {@code [orderId, product, quantity]} rows, without loading the orders.
+     */
+    @Query("select l.order.id, p, l.quantity from OrderLine l join l.product p where l.order.id in :orderIds")
+    List<Object[]> findQuantitiesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * The {@code order_items} of the orders that have no lines, as {@code [orderId, product]} rows.
+     */
+    @Query("select o.id, p from Order o join o.items p where o.id in :orderIds"
+            + " and not exists (select l.id from OrderLine l where l.order = o)")
+    List<Object[]> findItemsWithoutLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,11 +1,28 @@
 package com.nimbleways.springboilerplate.repositories;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.nimbleways.springboilerplate.entities.Order;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import javax.persistence.QueryHint;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     Optional<Order> findById(Long orderId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long orderId);
+
+    @Query("select distinct o from Order o left join fetch o.items where o.id in :orderIds")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    List<Order> findAllWithItemsByIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("select o.id from Order o where o.id in :orderIds")
+    List<Long> findIdsByIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
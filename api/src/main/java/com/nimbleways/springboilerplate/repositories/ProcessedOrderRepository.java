@@ -0,0 +1,20 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.nimbleways.springboilerplate.entities.ProcessedOrder;
+import java.time.Instant;
+
+public interface ProcessedOrderRepository extends JpaRepository<ProcessedOrder, Long> {
+
+    /**
+     * Inserts the record right away rather than at flush time, so that a concurrent transaction
+     * recording the same order waits on this row and then fails instead of processing it twice.
+     */
+    @Modifying
+    @Query(value = "insert into processed_orders (order_id, processed_at) values (:orderId, :processedAt)", nativeQuery = true)
+    void insert(@Param("orderId") Long orderId, @Param("processedAt") Instant processedAt);
+}
@@ -1,6 +1,9 @@
 package com.nimbleways.springboilerplate.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.nimbleways.springboilerplate.entities.Product;
 import java.util.Optional;
@@ -10,4 +13,35 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     Optional<Product> findById(Long productId);
 
     Optional<Product> findFirstByName(String name);
+
+    /**
+     * Takes {@code quantity} units of stock if that many are left, in a single conditional statement.
+     *
+     * @return the number of updated rows: 1 when the units were taken, 0 when fewer are left
+     */
+    @Modifying
+    @Query("update Product p set p.available = p.available - :quantity where p.id = :productId and p.available >= :quantity")
+    int decrementAvailableBy(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Sets the stock only if it still has the expected value, for read-then-write changes that
+     * cannot be expressed as a single conditional update.
+     *
+     * @return 1 when the stock was changed, 0 when it had been changed concurrently
+     */
+    @Modifying
+    @Query("update Product p set p.available = :newValue where p.id = :productId and p.available = :expected")
+    int compareAndSetAvailable(@Param("productId") Long productId, @Param("expected") int expected,
+                               @Param("newValue") int newValue);
+
+    @Query("select p.available from Product p where p.id = :productId")
+    Optional<Integer> findAvailableById(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("update Product p set p.available = 0 where p.id = :productId and p.available <> 0")
+    int markUnavailable(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("update Product p set p.available = p.available + :delta where p.id = :productId")
+    int adjustAvailable(@Param("productId") Long productId, @Param("delta") int delta);
 }
@@ -0,0 +1,46 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.nimbleways.springboilerplate.entities.ReservationStatus;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reservations only change status through conditional statements, so that each one is settled at most
+ * once however many requests, or instances, race for it.
+ */
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByStatus(ReservationStatus status);
+
+    List<StockReservation> findByOrderIdInAndStatusIn(Collection<Long> orderIds, Collection<ReservationStatus> statuses);
+
+    /**
+     * @return 1 when the reservation changed, 0 when it was no longer in status {@code from}
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.id = :id and r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    /**
+     * @return 1 when the reservation changed, 0 when it was no longer in status {@code from} or had expired
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.id = :id and r.status = :from and r.expiresAt > :now")
+    int transitionIfUnexpired(@Param("id") Long id, @Param("from") ReservationStatus from,
+                              @Param("to") ReservationStatus to, @Param("now") Instant now);
+
+    /**
+     * @return 1 when the reservation changed, 0 when it was no longer in status {@code from} or had not expired yet
+     */
+    @Modifying
+    @Query("update StockReservation r set r.status = :to where r.id = :id and r.status = :from and r.expiresAt <= :now")
+    int transitionIfExpired(@Param("id") Long id, @Param("from") ReservationStatus from,
+                            @Param("to") ReservationStatus to, @Param("now") Instant now);
+}
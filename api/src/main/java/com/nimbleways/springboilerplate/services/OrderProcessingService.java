@@ -1,15 +1,48 @@
 package com.nimbleways.springboilerplate.services;
 
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.OrderSimulationResult;
+import com.nimbleways.springboilerplate.dto.order.SimulatedItem;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
 import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
 import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.services.implementations.IdempotentOrderProcessor;
+import com.nimbleways.springboilerplate.services.implementations.OptimisticLockRetry;
+import com.nimbleways.springboilerplate.services.implementations.OrderProcessingMetrics;
+import com.nimbleways.springboilerplate.services.implementations.ParallelItemProcessor;
+import com.nimbleways.springboilerplate.services.implementations.ProductLockManager;
+import com.nimbleways.springboilerplate.services.implementations.ReservationService;
+import com.nimbleways.springboilerplate.services.implementations.SimulatedOrderProcessingContext;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
 import com.nimbleways.springboilerplate.strategies.ProductAvailabilityStrategy;
 import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -17,49 +50,345 @@ import javax.transaction.Transactional;
 public class OrderProcessingService {
 
     private final ProductStrategyFactory productStrategyFactory;
+    private final OrderRepository orderRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final OrderProcessingProperties properties;
+    private final OrderProcessingMetrics metrics;
+    private final ParallelItemProcessor parallelItemProcessor;
+    private final ProductLockManager productLockManager;
+    private final IdempotentOrderProcessor idempotentOrderProcessor;
+    private final ReservationService reservationService;
+    private final Clock clock;
 
 
-    @Transactional
+    /**
+     * Processes the order in its own transaction, re-reading it and starting over when a concurrent
+     * order changed one of its products in the meantime. When called inside an existing transaction,
+     * the order joins it and conflicts are left to the caller. Orders sharing a product wait on each
+     * other's transaction through {@link ProductLockManager}. Units the order reserved at checkout count
+     * towards its lines, see {@link ReservationService#consume}.
+     */
     public void processOrder(Order order) {
         if (order == null || order.getItems() == null) {
             log.warn("Received null order or order with null items");
             return;
         }
 
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            processLockedItems(order, findLines(order));
+            return;
+        }
+
+        optimisticLockRetry.execute(attempt -> transactionTemplate.execute(status -> {
+            Order current = attempt == 1 ? order : reload(order);
+            processLockedItems(current, findLines(current));
+            return null;
+        }));
+    }
+
+    /**
+     * Loads the order and processes it through {@link IdempotentOrderProcessor}, so that a retried or
+     * concurrent request for an order already processed gets the same response without processing it again.
+     *
+     * @throws ResponseStatusException with {@code 404} when no order has that id
+     */
+    public ProcessOrderResponse processOrderById(Long orderId) {
+        return idempotentOrderProcessor.processOnce(orderId, () -> {
+            Order order = orderRepository.findWithItemsById(orderId)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.NOT_FOUND,
+                            "Order not found with id: " + orderId
+                    ));
+
+            processOrder(order);
+
+            log.info("Successfully processed order ID: {}", orderId);
+
+            return new ProcessOrderResponse(order.getId());
+        });
+    }
+
+    /**
+     * Processes many orders in chunks, committing one transaction per chunk.
+     * When a chunk fails, its orders are replayed one transaction each so that
+     * a single bad order is reported as failed without rolling back the others.
+     * Orders already processed, by a previous batch or on their own, are reported as processed
+     * without being processed again. Units an order reserved at checkout count towards its lines.
+     */
+    public List<OrderProcessingResult> processOrders(Collection<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> distinctIds = orderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        int chunkSize = Math.max(1, properties.getBatch().getChunkSize());
+
+        log.info("Processing {} orders in chunks of {}", distinctIds.size(), chunkSize);
+
+        List<OrderProcessingResult> results = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            results.addAll(processChunk(chunk));
+        }
+
+        log.info("Completed processing batch of {} orders", distinctIds.size());
+        return results;
+    }
+
+    /**
+     * Runs the orders through the same strategies as {@link #processOrders}, in the given order, against an
+     * in-memory copy of the stock: nothing is written, no one is notified and no metrics are recorded.
+     * Each order consumes the copied stock, so later orders see what earlier ones left. A product's stock is
+     * copied when it is first loaded; for hot products that is the table, which may lag their in-memory
+     * stock by up to a flush. As when processing, orders already processed are reported as processed
+     * without touching the copy, and units an order reserved at checkout count towards its lines, see
+     * {@link ReservationService#applyReserved}.
+     */
+    public List<OrderSimulationResult> simulateOrders(Collection<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> distinctIds = orderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        int chunkSize = Math.max(1, properties.getBatch().getChunkSize());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        SimulatedOrderProcessingContext simulation = new SimulatedOrderProcessingContext();
+        LocalDate today = LocalDate.now(clock);
+        long start = System.nanoTime();
+
+        List<OrderSimulationResult> results = new ArrayList<>(distinctIds.size());
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            try {
+                results.addAll(readOnly.execute(status -> simulateLoadedOrders(chunk, today, simulation)));
+            } finally {
+                entityManager.clear();
+            }
+        }
+
+        log.info("Simulated {} orders in {} ms", distinctIds.size(), (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    private List<OrderProcessingResult> processChunk(List<Long> orderIds) {
+        try {
+            return transactionTemplate.execute(status -> processLoadedOrders(orderIds));
+        } catch (RuntimeException e) {
+            log.warn("Chunk of {} orders failed ({}), processing its orders one by one",
+                    orderIds.size(), e.getMessage());
+            return orderIds.stream().map(this::processInOwnTransaction).toList();
+        } finally {
+            // Keep the persistence context from growing across chunks when it outlives the transaction
+            entityManager.clear();
+        }
+    }
+
+    private OrderProcessingResult processInOwnTransaction(Long orderId) {
+        try {
+            return optimisticLockRetry.execute(attempt ->
+                    transactionTemplate.execute(status -> processLoadedOrders(List.of(orderId)).get(0)));
+        } catch (RuntimeException e) {
+            log.error("Error processing order {}: {}", orderId, e.getMessage());
+            return OrderProcessingResult.failed(orderId, e.getMessage());
+        }
+    }
+
+    private List<OrderProcessingResult> processLoadedOrders(List<Long> orderIds) {
+        // Locked before loading, so that the products are read once the previous orders on them committed
+        lockProducts(orderIds);
+        Map<Long, Order> ordersById = orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        Map<Long, List<OrderLine>> linesByOrderId = orderLineRepository.findAllWithProductByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(line -> line.getOrder().getId()));
+        Set<Long> alreadyProcessed = idempotentOrderProcessor.recordBatch(ordersById.keySet());
+        Map<Long, List<OrderLine>> linesToProcess = new HashMap<>();
+        ordersById.forEach((orderId, order) -> {
+            if (!alreadyProcessed.contains(orderId)) {
+                linesToProcess.put(orderId, linesOrItems(order, linesByOrderId.getOrDefault(orderId, List.of())));
+            }
+        });
+        linesToProcess.putAll(reservationService.consume(linesToProcess));
+
+        return orderIds.stream()
+                .map(orderId -> {
+                    Order order = ordersById.get(orderId);
+                    if (order == null) {
+                        return OrderProcessingResult.notFound(orderId);
+                    }
+                    if (alreadyProcessed.contains(orderId)) {
+                        return OrderProcessingResult.processed(orderId);
+                    }
+                    processItems(order, linesToProcess.get(orderId));
+                    return OrderProcessingResult.processed(orderId);
+                })
+                .toList();
+    }
+
+    /**
+     * Reads the lines as rows, without loading the orders and their item collections. Orders without lines
+     * are read as one unit of each of their items, like {@link #linesOrItems}. Mirrors
+     * {@link #processLoadedOrders} with reads only.
+     */
+    private List<OrderSimulationResult> simulateLoadedOrders(List<Long> orderIds, LocalDate today,
+                                                             SimulatedOrderProcessingContext simulation) {
+        Set<Long> found = new HashSet<>(orderRepository.findIdsByIdIn(orderIds));
+        Set<Long> alreadyProcessed = idempotentOrderProcessor.findProcessed(found);
+        Map<Long, List<OrderLine>> linesByOrderId = new HashMap<>();
+        orderLineRepository.findQuantitiesByOrderIdIn(orderIds).forEach(row -> linesByOrderId
+                .computeIfAbsent((Long) row[0], orderId -> new ArrayList<>())
+                .add(new OrderLine(null, null, (Product) row[1], (Integer) row[2])));
+        orderLineRepository.findItemsWithoutLinesByOrderIdIn(orderIds).forEach(row -> linesByOrderId
+                .computeIfAbsent((Long) row[0], orderId -> new ArrayList<>())
+                .add(OrderLine.singleUnit(null, (Product) row[1])));
+        Map<Long, List<OrderLine>> linesToSimulate = new HashMap<>();
+        found.stream()
+                .filter(orderId -> !alreadyProcessed.contains(orderId))
+                .forEach(orderId -> linesToSimulate.put(orderId, linesByOrderId.getOrDefault(orderId, List.of())));
+        linesToSimulate.putAll(reservationService.applyReserved(linesToSimulate, simulation::putBack));
+
+        return orderIds.stream()
+                .map(orderId -> {
+                    if (!found.contains(orderId)) {
+                        return OrderSimulationResult.notFound(orderId);
+                    }
+                    if (alreadyProcessed.contains(orderId)) {
+                        return OrderSimulationResult.processed(orderId, List.of());
+                    }
+                    return simulateOrder(orderId, linesToSimulate.get(orderId), today, simulation);
+                })
+                .toList();
+    }
+
+    private void lockProducts(List<Long> orderIds) {
+        if (productLockManager.isActive()) {
+            productLockManager.lockUntilCompletion(orderLineRepository.findProductIdsByOrderIdIn(orderIds));
+        }
+    }
+
+    private Order reload(Order order) {
+        return orderRepository.findWithItemsById(order.getId())
+                .orElseThrow(() -> new IllegalStateException("Order " + order.getId() + " no longer exists"));
+    }
+
+    private List<OrderLine> findLines(Order order) {
+        List<OrderLine> lines = order.getId() == null
+                ? List.of()
+                : orderLineRepository.findAllWithProductByOrderIdIn(List.of(order.getId()));
+        return linesOrItems(order, lines);
+    }
+
+    /**
+     * Lines are authoritative when the order has any; orders from before they existed are read as
+     * one unit of each of their items.
+     */
+    private static List<OrderLine> linesOrItems(Order order, List<OrderLine> lines) {
+        if (!lines.isEmpty()) {
+            return lines;
+        }
+        return order.getItems().stream()
+                .map(product -> OrderLine.singleUnit(order, product))
+                .toList();
+    }
+
+    /**
+     * The order was loaded before its products could be locked, so a concurrent order may still have changed
+     * them in between; the optimistic lock retry covers that.
+     */
+    private void processLockedItems(Order order, List<OrderLine> lines) {
+        productLockManager.lockUntilCompletion(lines.stream()
+                .map(OrderLine::getProduct)
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .toList());
+        List<OrderLine> remaining = order.getId() == null
+                ? lines
+                : reservationService.consume(Map.of(order.getId(), lines)).getOrDefault(order.getId(), lines);
+        processItems(order, remaining);
+    }
+
+    private void processItems(Order order, List<OrderLine> lines) {
         log.info("Processing order ID: {}", order.getId());
 
-        order.getItems().forEach(this::processProduct);
+        long start = System.nanoTime();
+        // One day for the whole order, even if it is processed across midnight
+        LocalDate today = LocalDate.now(clock);
+        boolean succeeded = false;
+        try {
+            ParallelItemProcessor.LineProcessor processor = (product, quantity, context) ->
+                    processProduct(product, quantity, today, context);
+            if (parallelItemProcessor.accepts(lines.size())) {
+                parallelItemProcessor.process(lines, processor);
+            } else {
+                parallelItemProcessor.processSequentially(lines, processor);
+            }
+            succeeded = true;
+        } finally {
+            metrics.recordOrder(lines.size(), System.nanoTime() - start, succeeded);
+        }
 
         log.info("Completed processing order ID: {}", order.getId());
     }
 
-    private void processProduct(Product product) {
+    private ProcessingOutcome processProduct(Product product, int quantity, LocalDate today,
+                                             OrderProcessingContext context) {
         if (product == null) {
             log.warn("Encountered null product in order");
-            return;
+            return null;
         }
 
         try {
-            ProductType productType = parseProductType(product.getType());
-            ProductAvailabilityStrategy strategy = productStrategyFactory.getStrategy(productType);
-            strategy.processOrder(product);
+            ProductType productType = product.getType();
+            ProductAvailabilityStrategy strategy = strategyFor(product);
+            ProcessingOutcome outcome = strategy.processOrder(product, quantity, today, context);
 
-            log.debug("Processed product: {} (type: {})", product.getName(), productType);
+            log.debug("Processed product: {} x{} (type: {}, outcome: {})", product.getName(), quantity, productType, outcome);
+            return outcome;
         } catch (IllegalArgumentException e) {
             log.error("Error processing product {}: {}", product.getName(), e.getMessage());
             throw e;
         }
     }
 
-    private ProductType parseProductType(String type) {
-        if (type == null) {
-            throw new IllegalArgumentException("Product type cannot be null");
-        }
-
+    /**
+     * An order that would fail is reported as such before any of its lines touches the simulated stock,
+     * as processing would roll it back as a whole.
+     */
+    private OrderSimulationResult simulateOrder(Long orderId, List<OrderLine> lines, LocalDate today,
+                                                SimulatedOrderProcessingContext simulation) {
+        List<OrderLine> simulated = lines.stream().filter(line -> line.getProduct() != null).toList();
+        List<ProductAvailabilityStrategy> strategies;
         try {
-            return ProductType.valueOf(type.toUpperCase());
+            strategies = simulated.stream().map(line -> strategyFor(line.getProduct())).toList();
         } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid product type: " + type);
+            return OrderSimulationResult.failed(orderId, e.getMessage());
+        }
+
+        List<SimulatedItem> items = new ArrayList<>(simulated.size());
+        for (int i = 0; i < simulated.size(); i++) {
+            OrderLine line = simulated.get(i);
+            Product product = simulation.copyOf(line.getProduct());
+            ProcessingOutcome outcome = strategies.get(i).processOrder(product, line.getQuantity(), today, simulation);
+            int taken = simulation.drainTaken();
+            items.add(new SimulatedItem(product.getId(), product.getName(), line.getQuantity(), taken,
+                    line.getQuantity() - taken, outcome, simulation.drainLeadTime()));
+        }
+        return OrderSimulationResult.processed(orderId, items);
+    }
+
+    private ProductAvailabilityStrategy strategyFor(Product product) {
+        if (product.getType() == null) {
+            throw new IllegalArgumentException("Product type cannot be null");
         }
+        return productStrategyFactory.getStrategy(product.getType());
     }
 }
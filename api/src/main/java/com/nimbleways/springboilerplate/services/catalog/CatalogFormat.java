@@ -0,0 +1,47 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+
+public enum CatalogFormat {
+    CSV("text/csv") {
+        @Override
+        CatalogReader reader(BufferedReader reader, ObjectMapper objectMapper, ProductTypeConverter types) {
+            return new CsvCatalogReader(reader, types);
+        }
+
+        @Override
+        CatalogWriter writer(Writer writer, ObjectMapper objectMapper) {
+            return new CsvCatalogWriter(writer);
+        }
+    },
+    NDJSON("application/x-ndjson") {
+        @Override
+        CatalogReader reader(BufferedReader reader, ObjectMapper objectMapper, ProductTypeConverter types) {
+            return new NdjsonCatalogReader(reader, objectMapper, types);
+        }
+
+        @Override
+        CatalogWriter writer(Writer writer, ObjectMapper objectMapper) throws IOException {
+            return new NdjsonCatalogWriter(writer, objectMapper);
+        }
+    };
+
+    private final String mediaType;
+
+    CatalogFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    abstract CatalogReader reader(BufferedReader reader, ObjectMapper objectMapper, ProductTypeConverter types);
+
+    abstract CatalogWriter writer(Writer writer, ObjectMapper objectMapper) throws IOException;
+}
@@ -0,0 +1,11 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import java.io.IOException;
+
+interface CatalogReader {
+
+    /**
+     * @return the next row, or null at the end of the file
+     */
+    CatalogRow next() throws IOException;
+}
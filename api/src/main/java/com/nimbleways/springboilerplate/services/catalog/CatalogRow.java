@@ -0,0 +1,69 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One product of a catalog file. Rows are matched to existing products by name. The stock they set is
+ * absolute, so a row must give it.
+ */
+public record CatalogRow(String name, ProductType type, Integer available, Integer leadTime,
+                         LocalDate expiryDate, LocalDate seasonStartDate, LocalDate seasonEndDate) {
+
+    /**
+     * Field names, in the order of the CSV columns and of the NDJSON properties.
+     */
+    public static final List<String> FIELDS = List.of(
+            "name", "type", "available", "leadTime", "expiryDate", "seasonStartDate", "seasonEndDate");
+
+    /**
+     * @param fields the raw values by field name; missing and blank values are read as null, except for the
+     *               name and the available stock, which are required
+     * @param line   1-based line of the row in its file, for error messages
+     * @param types  reads the type, rejecting those no strategy handles
+     */
+    static CatalogRow parse(Map<String, String> fields, long line, ProductTypeConverter types) {
+        try {
+            String name = text(fields.get("name"));
+            if (name == null) {
+                throw new IllegalArgumentException("name is required");
+            }
+            Integer available = integer(fields.get("available"));
+            if (available == null) {
+                throw new IllegalArgumentException("available is required");
+            }
+            if (available < 0) {
+                throw new IllegalArgumentException("available must not be negative: " + available);
+            }
+            return new CatalogRow(
+                    name,
+                    types.convertToEntityAttribute(text(fields.get("type"))),
+                    available,
+                    integer(fields.get("leadTime")),
+                    date(fields.get("expiryDate")),
+                    date(fields.get("seasonStartDate")),
+                    date(fields.get("seasonEndDate")));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + line + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String text(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Integer integer(String value) {
+        String text = text(value);
+        return text == null ? null : Integer.valueOf(text);
+    }
+
+    private static LocalDate date(String value) {
+        String text = text(value);
+        return text == null ? null : LocalDate.parse(text);
+    }
+}
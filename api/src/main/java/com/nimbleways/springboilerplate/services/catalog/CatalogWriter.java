@@ -0,0 +1,10 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import java.io.IOException;
+
+interface CatalogWriter {
+
+    void write(CatalogRow row) throws IOException;
+
+    void flush() throws IOException;
+}
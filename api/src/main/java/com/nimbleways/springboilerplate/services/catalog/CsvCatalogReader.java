@@ -0,0 +1,91 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a CSV file with a header line naming the {@link CatalogRow#FIELDS}, in any order. Fields may be
+ * quoted, with quotes inside doubled; a quoted field cannot span lines.
+ */
+class CsvCatalogReader implements CatalogReader {
+
+    private final BufferedReader reader;
+    private final ProductTypeConverter types;
+    private List<String> header;
+    private long line;
+
+    CsvCatalogReader(BufferedReader reader, ProductTypeConverter types) {
+        this.reader = reader;
+        this.types = types;
+    }
+
+    @Override
+    public CatalogRow next() throws IOException {
+        if (header == null) {
+            String headerLine = nextLine();
+            if (headerLine == null) {
+                return null;
+            }
+            header = split(headerLine).stream().map(String::trim).toList();
+        }
+
+        String text = nextLine();
+        if (text == null) {
+            return null;
+        }
+
+        List<String> values = split(text);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + line + ": expected "
+                    + header.size() + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return CatalogRow.parse(fields, line, types);
+    }
+
+    private String nextLine() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        return text;
+    }
+
+    static List<String> split(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
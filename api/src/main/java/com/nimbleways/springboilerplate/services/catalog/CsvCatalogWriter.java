@@ -0,0 +1,54 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+class CsvCatalogWriter implements CatalogWriter {
+
+    private final Writer writer;
+    private boolean headerWritten;
+
+    CsvCatalogWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(CatalogRow row) throws IOException {
+        if (!headerWritten) {
+            writer.write(String.join(",", CatalogRow.FIELDS));
+            writer.write('\n');
+            headerWritten = true;
+        }
+
+        writer.write(quote(row.name()));
+        writer.write(',');
+        writer.write(row.type() != null ? row.type().name() : "");
+        writer.write(',');
+        writer.write(Objects.toString(row.available(), ""));
+        writer.write(',');
+        writer.write(Objects.toString(row.leadTime(), ""));
+        writer.write(',');
+        writer.write(Objects.toString(row.expiryDate(), ""));
+        writer.write(',');
+        writer.write(Objects.toString(row.seasonStartDate(), ""));
+        writer.write(',');
+        writer.write(Objects.toString(row.seasonEndDate(), ""));
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,59 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads one JSON object per line, with the {@link CatalogRow#FIELDS} as properties.
+ */
+class NdjsonCatalogReader implements CatalogReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final ProductTypeConverter types;
+    private long line;
+
+    NdjsonCatalogReader(BufferedReader reader, ObjectMapper objectMapper, ProductTypeConverter types) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.types = types;
+    }
+
+    @Override
+    public CatalogRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + line + ": " + e.getOriginalMessage(), e);
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Invalid catalog row at line " + line + ": not a JSON object");
+        }
+
+        Map<String, String> fields = new HashMap<>(CatalogRow.FIELDS.size() * 2);
+        for (String field : CatalogRow.FIELDS) {
+            JsonNode value = node.get(field);
+            if (value != null && !value.isNull()) {
+                fields.put(field, value.asText());
+            }
+        }
+        return CatalogRow.parse(fields, line, types);
+    }
+}
@@ -0,0 +1,50 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+class NdjsonCatalogWriter implements CatalogWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonCatalogWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(writer);
+        // One object per line instead of Jackson's default space separator
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(CatalogRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", row.name());
+        generator.writeStringField("type", row.type() != null ? row.type().name() : null);
+        writeNumber("available", row.available());
+        writeNumber("leadTime", row.leadTime());
+        writeDate("expiryDate", row.expiryDate());
+        writeDate("seasonStartDate", row.seasonStartDate());
+        writeDate("seasonEndDate", row.seasonEndDate());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    private void writeNumber(String field, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    private void writeDate(String field, LocalDate value) throws IOException {
+        generator.writeStringField(field, value != null ? value.toString() : null);
+    }
+}
@@ -0,0 +1,277 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbleways.springboilerplate.config.ProductCatalogProperties;
+import com.nimbleways.springboilerplate.dto.catalog.CatalogExportResult;
+import com.nimbleways.springboilerplate.dto.catalog.CatalogImportResult;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+import com.nimbleways.springboilerplate.services.implementations.HotStockCache;
+import com.nimbleways.springboilerplate.services.implementations.ProductCache;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.ledger.StockMovementType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads and dumps the product catalog in bounded memory. An import reads its channel row by row and
+ * writes every chunk of rows in its own transaction as one JDBC batch that upserts the products by their
+ * unique name: {@code insert ... on conflict} on PostgreSQL, {@code merge} elsewhere. A failing row stops
+ * the import; the chunks before it stay committed. An export streams the products table through a
+ * forward-only cursor.
+ * <p>
+ * Stock set by an import is absolute, so it should not run while orders are taking the same products.
+ * The stock of the products kept in {@link HotStockCache} is not written to the table, which lags behind
+ * it: the cache is reset to the imported level when the chunk commits, and writes the difference behind.
+ */
+@Service
+@Slf4j
+public class ProductCatalogService {
+
+    private static final String UPSERT = "insert into products (type, available, lead_time, expiry_date,"
+            + " season_start_date, season_end_date, name, version) values (?, ?, ?, ?, ?, ?, ?, 0)"
+            + " on conflict (name) do update set type = excluded.type, available = excluded.available,"
+            + " lead_time = excluded.lead_time, expiry_date = excluded.expiry_date,"
+            + " season_start_date = excluded.season_start_date, season_end_date = excluded.season_end_date,"
+            + " version = products.version + 1";
+    private static final String MERGE = "merge into products p using (select cast(? as varchar(255)) as type,"
+            + " cast(? as int) as available, cast(? as int) as lead_time, cast(? as date) as expiry_date,"
+            + " cast(? as date) as season_start_date, cast(? as date) as season_end_date,"
+            + " cast(? as varchar(255)) as name) r on p.name = r.name"
+            + " when matched then update set type = r.type, available = r.available, lead_time = r.lead_time,"
+            + " expiry_date = r.expiry_date, season_start_date = r.season_start_date,"
+            + " season_end_date = r.season_end_date, version = p.version + 1"
+            + " when not matched then insert (type, available, lead_time, expiry_date, season_start_date,"
+            + " season_end_date, name, version) values (r.type, r.available, r.lead_time, r.expiry_date,"
+            + " r.season_start_date, r.season_end_date, r.name, 0)";
+    private static final String UPDATE_DETAILS = "update products set type = ?, lead_time = ?, expiry_date = ?,"
+            + " season_start_date = ?, season_end_date = ?, version = version + 1 where name = ?";
+    private static final String SELECT = "select name, type, available, lead_time, expiry_date, season_start_date,"
+            + " season_end_date from products order by id";
+    private static final int[] PARAMETER_TYPES = {
+            Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.DATE, Types.DATE, Types.DATE, Types.VARCHAR};
+    private static final int[] DETAIL_PARAMETER_TYPES = {
+            Types.VARCHAR, Types.INTEGER, Types.DATE, Types.DATE, Types.DATE, Types.VARCHAR};
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCatalogProperties properties;
+    private final ProductCache productCache;
+    private final HotStockCache hotStockCache;
+    private final StockLedger stockLedger;
+    private final ProductTypeConverter productTypeConverter;
+    private final String upsert;
+
+    public ProductCatalogService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper, ProductCatalogProperties properties,
+                                 ProductCache productCache, HotStockCache hotStockCache, StockLedger stockLedger,
+                                 ProductTypeConverter productTypeConverter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // Some drivers, PostgreSQL's among them, only honour the fetch size inside a transaction
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.productCache = productCache;
+        this.hotStockCache = hotStockCache;
+        this.stockLedger = stockLedger;
+        this.productTypeConverter = productTypeConverter;
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        this.upsert = "PostgreSQL".equals(database) ? UPSERT : MERGE;
+    }
+
+    public CatalogImportResult importCatalog(ReadableByteChannel channel, CatalogFormat format) {
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        CatalogReader rows = format.reader(reader, objectMapper, productTypeConverter);
+        Map<String, Long> hotIdsByName = hotProductIdsByName();
+
+        // Keyed by name so that a product repeated within a chunk is written once, with its last values
+        Map<String, CatalogRow> chunk = new LinkedHashMap<>(chunkSize * 2);
+        long[] written = new long[2];
+        try {
+            for (CatalogRow row = rows.next(); row != null; row = rows.next()) {
+                chunk.put(row.name(), row);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(new ArrayList<>(chunk.values()), hotIdsByName, written);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the catalog", e);
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(new ArrayList<>(chunk.values()), hotIdsByName, written);
+        }
+
+        CatalogImportResult result = CatalogImportResult.of(written[0], written[1], Duration.ofNanos(System.nanoTime() - start));
+        log.info("Imported {} catalog rows ({} inserted, {} updated) in {} ms, {} rows/s",
+                result.rows(), result.inserted(), result.updated(), result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    public CatalogExportResult exportCatalog(WritableByteChannel channel, CatalogFormat format) {
+        long start = System.nanoTime();
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        long rows;
+        try {
+            CatalogWriter catalogWriter = format.writer(writer, objectMapper);
+            rows = readOnlyTransactionTemplate.execute(status -> streamProducts(catalogWriter));
+            catalogWriter.flush();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the catalog", e);
+        }
+
+        CatalogExportResult result = CatalogExportResult.of(rows, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Exported {} catalog rows in {} ms, {} rows/s", result.rows(), result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    private void writeChunk(List<CatalogRow> rows, Map<String, Long> hotIdsByName, long[] written) {
+        List<CatalogRow> hotRows = new ArrayList<>();
+        List<CatalogRow> tableRows = new ArrayList<>(rows.size());
+        rows.forEach(row -> (hotIdsByName.containsKey(row.name()) ? hotRows : tableRows).add(row));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int inserted = 0;
+            if (!tableRows.isEmpty()) {
+                List<String> names = tableRows.stream().map(CatalogRow::name).toList();
+                // Counted up front, as drivers may report a batched statement without its row count
+                inserted = names.size() - existingNames(names).size();
+                jdbcTemplate.batchUpdate(upsert,
+                        tableRows.stream().map(ProductCatalogService::parameters).toList(), PARAMETER_TYPES);
+                stockLedger.recordImported(names);
+            }
+            if (!hotRows.isEmpty()) {
+                writeHotRows(hotRows, hotIdsByName);
+            }
+
+            written[0] += inserted;
+            written[1] += rows.size() - inserted;
+        });
+        // Updates match products by name, their ids are not known here
+        productCache.evictAll();
+    }
+
+    private void writeHotRows(List<CatalogRow> hotRows, Map<String, Long> hotIdsByName) {
+        jdbcTemplate.batchUpdate(UPDATE_DETAILS,
+                hotRows.stream().map(ProductCatalogService::detailParameters).toList(), DETAIL_PARAMETER_TYPES);
+        for (CatalogRow row : hotRows) {
+            Long productId = hotIdsByName.get(row.name());
+            hotStockCache.reset(productId, row.available());
+            stockLedger.recordLevel(productId, StockMovementType.IMPORTED, row.available());
+        }
+    }
+
+    private Set<String> existingNames(List<String> names) {
+        Set<String> existing = new HashSet<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query("select name from products where name in (:names)",
+                Map.of("names", names),
+                resultSet -> {
+                    existing.add(resultSet.getString("name"));
+                });
+        return existing;
+    }
+
+    private Map<String, Long> hotProductIdsByName() {
+        Set<Long> hotProductIds = hotStockCache.hotProductIds();
+        if (hotProductIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Long> idsByName = new HashMap<>();
+        new NamedParameterJdbcTemplate(jdbcTemplate).query("select id, name from products where id in (:ids)",
+                Map.of("ids", hotProductIds),
+                resultSet -> {
+                    idsByName.put(resultSet.getString("name"), resultSet.getLong("id"));
+                });
+        return idsByName;
+    }
+
+    private long streamProducts(CatalogWriter writer) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Math.max(1, properties.getFetchSize()));
+            return statement;
+        }, resultSet -> {
+            try {
+                writer.write(toRow(resultSet));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the catalog", e);
+            }
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static Object[] parameters(CatalogRow row) {
+        return new Object[]{
+                row.type() != null ? row.type().name() : null,
+                row.available(),
+                row.leadTime(),
+                sqlDate(row.expiryDate()),
+                sqlDate(row.seasonStartDate()),
+                sqlDate(row.seasonEndDate()),
+                row.name()
+        };
+    }
+
+    private static Object[] detailParameters(CatalogRow row) {
+        return new Object[]{
+                row.type() != null ? row.type().name() : null,
+                row.leadTime(),
+                sqlDate(row.expiryDate()),
+                sqlDate(row.seasonStartDate()),
+                sqlDate(row.seasonEndDate()),
+                row.name()
+        };
+    }
+
+    private CatalogRow toRow(ResultSet resultSet) throws SQLException {
+        return new CatalogRow(
+                resultSet.getString("name"),
+                productTypeConverter.convertToEntityAttribute(resultSet.getString("type")),
+                resultSet.getObject("available", Integer.class),
+                resultSet.getObject("lead_time", Integer.class),
+                resultSet.getObject("expiry_date", LocalDate.class),
+                resultSet.getObject("season_start_date", LocalDate.class),
+                resultSet.getObject("season_end_date", LocalDate.class));
+    }
+
+    private static Date sqlDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+}
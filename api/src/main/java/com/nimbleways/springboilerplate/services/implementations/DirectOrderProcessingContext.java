@@ -0,0 +1,51 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.services.notifications.NotificationDispatcher;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Applies the strategies' effects as they happen, in the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class DirectOrderProcessingContext implements OrderProcessingContext {
+
+    private final StockService stockService;
+    private final ProductUnitOfWork productUnitOfWork;
+    private final NotificationDispatcher notificationDispatcher;
+
+    @Override
+    public int take(Product product, int quantity) {
+        return stockService.take(product, quantity);
+    }
+
+    @Override
+    public void markUnavailable(Product product) {
+        stockService.markUnavailable(product);
+    }
+
+    @Override
+    public void registerDirty(Product product) {
+        productUnitOfWork.registerDirty(product);
+    }
+
+    @Override
+    public void sendDelayNotification(int leadTime, String productName) {
+        notificationDispatcher.sendDelayNotification(leadTime, productName);
+    }
+
+    @Override
+    public void sendOutOfStockNotification(String productName) {
+        notificationDispatcher.sendOutOfStockNotification(productName);
+    }
+
+    @Override
+    public void sendExpirationNotification(String productName, LocalDate expiryDate) {
+        notificationDispatcher.sendExpirationNotification(productName, expiryDate);
+    }
+}
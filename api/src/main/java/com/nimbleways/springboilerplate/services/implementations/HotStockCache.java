@@ -0,0 +1,244 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.StockCacheProperties;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the stock of the configured hot products in memory so that orders on them never wait
+ * on a row lock. Changes are accumulated per product and written behind to the products table
+ * at a fixed interval (and on shutdown in the durable mode). Units taken by a transaction that
+ * rolls back are put back. The hot products' stock must only change through {@link StockService}
+ * while the cache is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockCache {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StockCacheProperties properties;
+    private final Map<Long, HotStock> stocks = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    public boolean handles(Long productId) {
+        return properties.isEnabled() && productId != null && properties.getHotProductIds().contains(productId);
+    }
+
+    public Set<Long> hotProductIds() {
+        return properties.isEnabled() ? properties.getHotProductIds() : Set.of();
+    }
+
+    public boolean tryDecrement(Long productId) {
+        return tryTake(productId, 1);
+    }
+
+    /**
+     * Takes {@code quantity} units only if that many are left.
+     */
+    public boolean tryTake(Long productId, int quantity) {
+        return take(productId, quantity, quantity) == quantity;
+    }
+
+    /**
+     * Takes up to {@code quantity} units, as many as are left.
+     *
+     * @return the number of units taken
+     */
+    public int take(Long productId, int quantity) {
+        return take(productId, quantity, 1);
+    }
+
+    private int take(Long productId, int quantity, int minimum) {
+        int taken = stockOf(productId).take(quantity, minimum);
+        if (taken > 0) {
+            holdUntilCompletion(productId, taken);
+        }
+        return taken;
+    }
+
+    /**
+     * @return the number of units that were left
+     */
+    public int markUnavailable(Long productId) {
+        int taken = stockOf(productId).takeAll();
+        if (taken > 0) {
+            holdUntilCompletion(productId, taken);
+        }
+        return taken;
+    }
+
+    /**
+     * Gives back units taken earlier, such as a released reservation. Inside a transaction they only
+     * become available once it commits.
+     */
+    public void putBack(Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockOf(productId).restore(quantity);
+            return;
+        }
+        heldUnits().returned.merge(productId, quantity, Integer::sum);
+    }
+
+    /**
+     * Sets the stock to {@code level}, such as the one a catalog import read, once the transaction commits.
+     * The difference with the current stock is written behind like any other change, so a flush in between
+     * cannot apply changes from before the new level on top of it.
+     */
+    public void reset(Long productId, int level) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockOf(productId).reset(level);
+            return;
+        }
+        heldUnits().levels.put(productId, level);
+    }
+
+    public int available(Long productId) {
+        return stockOf(productId).available.get();
+    }
+
+    /**
+     * Writes the stock changes accumulated since the last flush to the database.
+     */
+    public void flush() {
+        stocks.forEach((productId, stock) -> {
+            int delta = stock.pendingDelta.getAndSet(0);
+            if (delta == 0) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> productRepository.adjustAvailable(productId, delta));
+            } catch (RuntimeException e) {
+                stock.pendingDelta.addAndGet(delta);
+                log.error("Failed to flush stock of product {}, will retry: {}", productId, e.getMessage());
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long interval = properties.getFlushInterval().toMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stock-write-behind-"));
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Hot stock cache enabled for {} products, flushing every {} ms",
+                properties.getHotProductIds().size(), interval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher.awaitTermination(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (properties.isFlushOnShutdown()) {
+            flush();
+        }
+    }
+
+    private HotStock stockOf(Long productId) {
+        return stocks.computeIfAbsent(productId, id -> new HotStock(productRepository.findById(id)
+                .map(Product::getAvailable)
+                .orElse(0)));
+    }
+
+    private void holdUntilCompletion(Long productId, int units) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        heldUnits().units.merge(productId, units, Integer::sum);
+    }
+
+    private HeldUnits heldUnits() {
+        HeldUnits held = (HeldUnits) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            held = new HeldUnits();
+            TransactionSynchronizationManager.bindResource(this, held);
+            TransactionSynchronizationManager.registerSynchronization(held);
+        }
+        return held;
+    }
+
+    private static final class HotStock {
+        private final AtomicInteger available;
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+
+        private HotStock(Integer available) {
+            this.available = new AtomicInteger(available != null ? Math.max(available, 0) : 0);
+        }
+
+        private int take(int quantity, int minimum) {
+            for (;;) {
+                int current = available.get();
+                int taken = Math.min(current, quantity);
+                if (taken <= 0 || taken < minimum) {
+                    return 0;
+                }
+                if (available.compareAndSet(current, current - taken)) {
+                    pendingDelta.addAndGet(-taken);
+                    return taken;
+                }
+            }
+        }
+
+        private int takeAll() {
+            int taken = available.getAndSet(0);
+            pendingDelta.addAndGet(-taken);
+            return taken;
+        }
+
+        private void restore(int units) {
+            available.addAndGet(units);
+            pendingDelta.addAndGet(units);
+        }
+
+        private void reset(int level) {
+            int previous = available.getAndSet(Math.max(level, 0));
+            pendingDelta.addAndGet(Math.max(level, 0) - previous);
+        }
+    }
+
+    private final class HeldUnits implements TransactionSynchronization {
+        private final Map<Long, Integer> units = new HashMap<>();
+        private final Map<Long, Integer> returned = new HashMap<>();
+        private final Map<Long, Integer> levels = new HashMap<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(HotStockCache.this);
+            if (status != STATUS_COMMITTED) {
+                units.forEach((productId, count) -> stocks.get(productId).restore(count));
+            } else {
+                returned.forEach((productId, count) -> stockOf(productId).restore(count));
+                levels.forEach((productId, level) -> stockOf(productId).reset(level));
+            }
+        }
+    }
+}
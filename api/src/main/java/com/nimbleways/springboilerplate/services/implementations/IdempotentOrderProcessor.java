@@ -0,0 +1,190 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.entities.ProcessedOrder;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Makes processing an order idempotent, so that client retries do not take its stock twice.
+ * A repeated request is answered, in order, from a bounded in-memory cache of recently processed orders,
+ * by joining the execution already running for the same order, or from the {@code processed_orders}
+ * record, which is written in the same transaction as the stock changes. Batches only go by that record,
+ * see {@link #recordBatch}.
+ */
+@Component
+@Slf4j
+public class IdempotentOrderProcessor {
+
+    private final ProcessedOrderRepository processedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Cache<Long, ProcessOrderResponse> recentlyProcessed;
+    private final ConcurrentMap<Long, CompletableFuture<ProcessOrderResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter cachedDuplicates;
+    private final Counter collapsedDuplicates;
+    private final Counter recordedDuplicates;
+
+    public IdempotentOrderProcessor(ProcessedOrderRepository processedOrderRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    OptimisticLockRetry optimisticLockRetry,
+                                    OrderProcessingProperties properties,
+                                    MeterRegistry meterRegistry,
+                                    Clock clock) {
+        this.processedOrderRepository = processedOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.clock = clock;
+        OrderProcessingProperties.Idempotency settings = properties.getIdempotency();
+        this.enabled = settings.isEnabled();
+        this.recentlyProcessed = Caffeine.newBuilder()
+                .maximumSize(settings.getCacheSize())
+                .expireAfterWrite(settings.getCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentlyProcessed, "orders.idempotency");
+        this.cachedDuplicates = duplicates(meterRegistry, "cache");
+        this.collapsedDuplicates = duplicates(meterRegistry, "in_flight");
+        this.recordedDuplicates = duplicates(meterRegistry, "record");
+    }
+
+    /**
+     * Runs {@code processing} unless the order was already processed.
+     *
+     * @param processing loads and processes the order; it runs in a transaction that also records the
+     *                   order as processed, and is called again on an optimistic lock conflict
+     */
+    public ProcessOrderResponse processOnce(Long orderId, Supplier<ProcessOrderResponse> processing) {
+        if (!enabled) {
+            return processing.get();
+        }
+
+        ProcessOrderResponse cached = recentlyProcessed.getIfPresent(orderId);
+        if (cached != null) {
+            cachedDuplicates.increment();
+            return cached;
+        }
+
+        CompletableFuture<ProcessOrderResponse> execution = new CompletableFuture<>();
+        CompletableFuture<ProcessOrderResponse> running = inFlight.putIfAbsent(orderId, execution);
+        if (running != null) {
+            collapsedDuplicates.increment();
+            log.debug("Order {} is already being processed, waiting for it", orderId);
+            return join(running);
+        }
+
+        try {
+            ProcessOrderResponse response = processedOrderRepository.existsById(orderId)
+                    ? alreadyProcessed(orderId)
+                    : processAndRecord(orderId, processing);
+            recentlyProcessed.put(orderId, response);
+            execution.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(orderId, execution);
+        }
+    }
+
+    /**
+     * Reads which of the orders are recorded as processed, without recording anything.
+     *
+     * @return the orders a batch would skip
+     */
+    public Set<Long> findProcessed(Collection<Long> orderIds) {
+        if (!enabled || orderIds.isEmpty()) {
+            return Set.of();
+        }
+
+        return processedOrderRepository.findAllById(orderIds).stream()
+                .map(ProcessedOrder::getOrderId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Records the orders of a batch as processed, in the caller's transaction, before they are processed.
+     * A concurrent batch or request recording one of them makes this transaction fail on the record.
+     *
+     * @return the orders that were already recorded, and must not be processed again
+     */
+    public Set<Long> recordBatch(Collection<Long> orderIds) {
+        if (!enabled || orderIds.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<Long> recorded = findProcessed(orderIds);
+        Instant now = clock.instant();
+        orderIds.stream()
+                .filter(orderId -> !recorded.contains(orderId))
+                .forEach(orderId -> processedOrderRepository.insert(orderId, now));
+
+        if (!recorded.isEmpty()) {
+            recordedDuplicates.increment(recorded.size());
+            log.info("Orders {} were already processed, skipping them", recorded);
+        }
+        return recorded;
+    }
+
+    private ProcessOrderResponse processAndRecord(Long orderId, Supplier<ProcessOrderResponse> processing) {
+        try {
+            return optimisticLockRetry.execute(attempt -> transactionTemplate.execute(status -> {
+                processedOrderRepository.insert(orderId, clock.instant());
+                return processing.get();
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the order first; its transaction has committed by now
+            if (processedOrderRepository.existsById(orderId)) {
+                return alreadyProcessed(orderId);
+            }
+            throw e;
+        }
+    }
+
+    private ProcessOrderResponse alreadyProcessed(Long orderId) {
+        recordedDuplicates.increment();
+        log.info("Order {} was already processed, skipping it", orderId);
+        return new ProcessOrderResponse(orderId);
+    }
+
+    private static ProcessOrderResponse join(CompletableFuture<ProcessOrderResponse> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter duplicates(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("orders.idempotency.duplicates")
+                .description("Repeated requests for an order that were not processed again")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,95 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Re-runs a unit of work when it loses an optimistic lock race, waiting a random delay
+ * (exponential backoff with full jitter) between attempts so that competing writers spread out.
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetry {
+
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final OrderProcessingProperties.Retry settings;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public OptimisticLockRetry(OrderProcessingProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getRetry();
+        this.conflicts = Counter.builder("orders.processing.optimistic_lock.conflicts")
+                .description("Optimistic lock conflicts hit while processing orders")
+                .register(meterRegistry);
+        this.retries = Counter.builder("orders.processing.optimistic_lock.retries")
+                .description("Order processing attempts re-run after an optimistic lock conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("orders.processing.optimistic_lock.exhausted")
+                .description("Orders that still conflicted after the last allowed attempt")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param work receives the 1-based attempt number, so that later attempts can re-read their state
+     */
+    public <T> T execute(IntFunction<T> work) {
+        int maxAttempts = Math.max(1, settings.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.apply(attempt);
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockConflict(e)) {
+                    throw e;
+                }
+
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Giving up after {} attempts on optimistic lock conflict: {}", attempt, e.getMessage());
+                    throw e;
+                }
+
+                log.debug("Optimistic lock conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+                retries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long initial = settings.getInitialBackoff().toMillis();
+        long ceiling = Math.min(settings.getMaxBackoff().toMillis(), initial << Math.min(attempt - 1, MAX_BACKOFF_SHIFT));
+        if (ceiling <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    private static boolean isOptimisticLockConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
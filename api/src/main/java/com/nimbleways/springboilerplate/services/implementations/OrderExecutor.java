@@ -0,0 +1,71 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool running order processing off the servlet threads in the async execution mode.
+ * When both the threads and the queue are busy, new work is rejected straight away rather than
+ * piling up behind the database.
+ */
+@Component
+@ConditionalOnProperty(prefix = "orders.execution", name = "mode", havingValue = "async")
+@Slf4j
+public class OrderExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public OrderExecutor(OrderProcessingProperties properties, MeterRegistry meterRegistry) {
+        OrderProcessingProperties.Execution settings = properties.getExecution();
+        int poolSize = Math.max(1, settings.getPoolSize());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())),
+                new CustomizableThreadFactory("order-processing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("orders.execution.queue.depth", executor, e -> e.getQueue().size())
+                .description("Orders waiting for a processing thread")
+                .register(meterRegistry);
+        Gauge.builder("orders.execution.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Orders being processed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("orders.execution.rejected")
+                .description("Orders rejected because the processing pool was saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RejectedExecutionException when the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order processing pool did not drain on shutdown, {} orders abandoned", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+}
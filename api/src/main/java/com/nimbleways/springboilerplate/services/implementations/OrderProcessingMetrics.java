@@ -0,0 +1,76 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the order-processing path. Every meter is registered up front so that recording
+ * on the per-item path is a map lookup, without building tags or ids.
+ */
+@Component
+public class OrderProcessingMetrics {
+
+    private final Timer processedOrders;
+    private final Timer failedOrders;
+    private final DistributionSummary orderSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<ProductType, Map<ProcessingOutcome, Timer>> items = new ConcurrentHashMap<>();
+
+    public OrderProcessingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.processedOrders = orderTimer(meterRegistry, "processed");
+        this.failedOrders = orderTimer(meterRegistry, "failed");
+        this.orderSize = DistributionSummary.builder("orders.processing.order.size")
+                .description("Number of items in the processed orders")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        for (ProductType type : ProductType.builtIn()) {
+            items.put(type, itemTimers(type));
+        }
+    }
+
+    public void recordOrder(int itemCount, long elapsedNanos, boolean succeeded) {
+        orderSize.record(itemCount);
+        (succeeded ? processedOrders : failedOrders).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordItem(ProductType type, ProcessingOutcome outcome, long elapsedNanos) {
+        Map<ProcessingOutcome, Timer> byOutcome = items.get(type);
+        if (byOutcome == null) {
+            // A type added by a strategy besides the built-in ones
+            byOutcome = items.computeIfAbsent(type, this::itemTimers);
+        }
+        byOutcome.get(outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Map<ProcessingOutcome, Timer> itemTimers(ProductType type) {
+        Map<ProcessingOutcome, Timer> byOutcome = new EnumMap<>(ProcessingOutcome.class);
+        for (ProcessingOutcome outcome : ProcessingOutcome.values()) {
+            byOutcome.put(outcome, Timer.builder("orders.processing.item")
+                    .description("Time spent in the product strategy for one item")
+                    .tag("type", type.name())
+                    .tag("outcome", outcome.name())
+                    .register(meterRegistry));
+        }
+        return byOutcome;
+    }
+
+    private static Timer orderTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("orders.processing.order")
+                .description("Time spent processing the items of an order")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,176 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Processes the items of an order in two phases. The strategies first run against
+ * {@link PlannedOrderProcessingContext}s, which only record what should happen; for very large orders
+ * they run in parallel on a dedicated pool, otherwise on the calling thread. The calling thread then
+ * applies the plans partition by partition, in its own transaction: decrements go out as one batch per
+ * partition, and a line whose decrement is refused by the database (someone else took the units since
+ * they were loaded) or that can only be partially fulfilled is processed again through the direct context.
+ * Each item is timed once, by the strategy run whose outcome is applied.
+ * A failure in either phase propagates before anything is committed, so an order still succeeds or
+ * fails as a whole.
+ */
+@Component
+@Slf4j
+public class ParallelItemProcessor {
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private final OrderProcessingProperties.Parallel settings;
+    private final StockService stockService;
+    private final DirectOrderProcessingContext directContext;
+    private final OrderProcessingMetrics metrics;
+
+    private ForkJoinPool pool;
+
+    public ParallelItemProcessor(OrderProcessingProperties properties, StockService stockService,
+                                 DirectOrderProcessingContext directContext, OrderProcessingMetrics metrics) {
+        this.settings = properties.getParallel();
+        this.stockService = stockService;
+        this.directContext = directContext;
+        this.metrics = metrics;
+    }
+
+    public boolean accepts(int itemCount) {
+        return pool != null && settings.isEnabled() && itemCount >= settings.getThreshold();
+    }
+
+    /**
+     * Plans and applies all the lines on the calling thread, as a single partition.
+     */
+    public void processSequentially(Collection<OrderLine> lines, LineProcessor processor) {
+        apply(plan(List.copyOf(lines), processor), processor);
+    }
+
+    public void process(Collection<OrderLine> lines, LineProcessor processor) {
+        List<List<OrderLine>> partitions = partition(lines);
+        log.debug("Processing {} lines in {} partitions", lines.size(), partitions.size());
+
+        List<List<PlannedItem>> plans;
+        try {
+            plans = pool.submit(() -> partitions.parallelStream()
+                    .map(partition -> plan(partition, processor))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing order items", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        plans.forEach(partition -> apply(partition, processor));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        pool = new ForkJoinPool(Math.max(1, settings.getParallelism()), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("order-items-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private List<List<OrderLine>> partition(Collection<OrderLine> lines) {
+        int count = Math.max(1, Math.min(lines.size(), settings.getParallelism() * PARTITIONS_PER_THREAD));
+        List<List<OrderLine>> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<>(lines.size() / count + 1));
+        }
+        // Lines of one product always land in the same partition
+        for (OrderLine line : lines) {
+            Product product = line.getProduct();
+            int index = product == null || product.getId() == null ? 0 : Math.floorMod(product.getId().hashCode(), count);
+            partitions.get(index).add(line);
+        }
+        return partitions;
+    }
+
+    private List<PlannedItem> plan(List<OrderLine> partition, LineProcessor processor) {
+        List<PlannedItem> planned = new ArrayList<>(partition.size());
+        for (OrderLine line : partition) {
+            PlannedOrderProcessingContext context = new PlannedOrderProcessingContext();
+            long start = System.nanoTime();
+            ProcessingOutcome outcome = processor.process(line.getProduct(), line.getQuantity(), context);
+            planned.add(new PlannedItem(line, context, outcome, System.nanoTime() - start));
+        }
+        return planned;
+    }
+
+    private void apply(List<PlannedItem> partition, LineProcessor processor) {
+        List<OrderLine> toTake = partition.stream()
+                .filter(item -> item.context().plansDecrement())
+                .map(PlannedItem::line)
+                .toList();
+        Set<OrderLine> refused = new HashSet<>();
+        if (!toTake.isEmpty()) {
+            refused.addAll(stockService.tryTakeAll(toTake));
+        }
+
+        for (PlannedItem item : partition) {
+            if (item.context().needsDirectProcessing() || refused.contains(item.line())) {
+                long start = System.nanoTime();
+                ProcessingOutcome outcome = processor.process(item.line().getProduct(), item.line().getQuantity(),
+                        directContext);
+                record(item.line(), outcome, System.nanoTime() - start);
+            } else {
+                item.context().replayOn(directContext);
+                record(item.line(), item.outcome(), item.elapsedNanos());
+            }
+        }
+    }
+
+    private void record(OrderLine line, ProcessingOutcome outcome, long elapsedNanos) {
+        // No outcome when the line had no product to run a strategy on
+        if (outcome != null) {
+            metrics.recordItem(line.getProduct().getType(), outcome, elapsedNanos);
+        }
+    }
+
+    /**
+     * Runs a product and its ordered quantity through its strategy against the given context. It may run
+     * twice for the same line, so it does not record its outcome: the processor does, once, for the run
+     * that is applied.
+     */
+    @FunctionalInterface
+    public interface LineProcessor {
+        ProcessingOutcome process(Product product, int quantity, OrderProcessingContext context);
+    }
+
+    private record PlannedItem(OrderLine line, PlannedOrderProcessingContext context, ProcessingOutcome outcome,
+                               long elapsedNanos) {
+    }
+}
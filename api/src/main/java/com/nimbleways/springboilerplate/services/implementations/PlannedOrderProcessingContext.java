@@ -0,0 +1,74 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the effects of a strategy on one product without touching the database, so that the
+ * decision can be taken on any thread. Taking the whole quantity is assumed to succeed when the loaded
+ * stock allows it; {@link ParallelItemProcessor} confirms it against the database before replaying the
+ * rest. A partial take depends on the stock actually left, so it is not planned: the item is flagged
+ * to go through the direct context instead.
+ */
+class PlannedOrderProcessingContext implements OrderProcessingContext {
+
+    private final List<Consumer<OrderProcessingContext>> effects = new ArrayList<>();
+    private boolean decrement;
+    private boolean direct;
+
+    boolean plansDecrement() {
+        return decrement;
+    }
+
+    boolean needsDirectProcessing() {
+        return direct;
+    }
+
+    void replayOn(OrderProcessingContext context) {
+        effects.forEach(effect -> effect.accept(context));
+    }
+
+    @Override
+    public int take(Product product, int quantity) {
+        if (product.getAvailable() == null || product.getAvailable() <= 0) {
+            return 0;
+        }
+        if (product.getAvailable() < quantity) {
+            direct = true;
+            return 0;
+        }
+
+        decrement = true;
+        return quantity;
+    }
+
+    @Override
+    public void markUnavailable(Product product) {
+        effects.add(context -> context.markUnavailable(product));
+    }
+
+    @Override
+    public void registerDirty(Product product) {
+        effects.add(context -> context.registerDirty(product));
+    }
+
+    @Override
+    public void sendDelayNotification(int leadTime, String productName) {
+        effects.add(context -> context.sendDelayNotification(leadTime, productName));
+    }
+
+    @Override
+    public void sendOutOfStockNotification(String productName) {
+        effects.add(context -> context.sendOutOfStockNotification(productName));
+    }
+
+    @Override
+    public void sendExpirationNotification(String productName, LocalDate expiryDate) {
+        effects.add(context -> context.sendExpirationNotification(productName, expiryDate));
+    }
+}
@@ -0,0 +1,126 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.dto.product.ProductSnapshot;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache of product snapshots for the lookup endpoints. Whatever changes the stock or the
+ * lead time of a product evicts it; inside a transaction the eviction waits for the transaction to
+ * complete, so that a concurrent lookup cannot put back the value it is replacing. The stock of hot
+ * products is read from {@link HotStockCache}, which is always current.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final HotStockCache hotStockCache;
+    private final boolean enabled;
+    private final Cache<Long, ProductSnapshot> byId;
+    private final Cache<String, Long> idsByName;
+
+    public ProductCache(ProductRepository productRepository, HotStockCache hotStockCache,
+                        ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.hotStockCache = hotStockCache;
+        this.enabled = properties.isEnabled();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        // Names only map to ids, so that evicting a product by id is enough
+        this.idsByName = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByName, "products.by_name");
+    }
+
+    public Optional<ProductSnapshot> findById(Long productId) {
+        ProductSnapshot snapshot = enabled
+                ? byId.get(productId, this::load)
+                : load(productId);
+        if (snapshot != null && hotStockCache.handles(productId)) {
+            snapshot = snapshot.withAvailable(hotStockCache.available(productId));
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    public Optional<ProductSnapshot> findByName(String name) {
+        if (!enabled) {
+            return productRepository.findFirstByName(name).map(Product::getId).flatMap(this::findById);
+        }
+
+        Long productId = idsByName.get(name, key -> productRepository.findFirstByName(key).map(Product::getId).orElse(null));
+        if (productId == null) {
+            return Optional.empty();
+        }
+        Optional<ProductSnapshot> snapshot = findById(productId);
+        if (snapshot.isPresent() && name.equals(snapshot.get().name())) {
+            return snapshot;
+        }
+
+        // The product was renamed or deleted since its name was cached
+        idsByName.invalidate(name);
+        return productRepository.findFirstByName(name).map(Product::getId).flatMap(this::findById);
+    }
+
+    /**
+     * Evicts the product once the current transaction completes, or right away outside of a transaction.
+     */
+    public void evict(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            byId.invalidate(productId);
+            return;
+        }
+
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvictions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.productIds.add(productId);
+    }
+
+    /**
+     * Evicts every product, for bulk changes such as catalog imports. Not deferred to the end of the
+     * transaction: callers run it after committing.
+     */
+    public void evictAll() {
+        byId.invalidateAll();
+        idsByName.invalidateAll();
+    }
+
+    private ProductSnapshot load(Long productId) {
+        return productRepository.findById(productId).map(ProductSnapshot::of).orElse(null);
+    }
+
+    private final class PendingEvictions implements TransactionSynchronization {
+        private final Set<Long> productIds = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductCache.this);
+            byId.invalidateAll(productIds);
+        }
+    }
+}
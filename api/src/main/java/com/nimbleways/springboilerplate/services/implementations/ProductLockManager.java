@@ -0,0 +1,153 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process locks keyed by product id, spread over a fixed number of stripes, so that orders sharing a
+ * product are processed one at a time while orders on disjoint products never wait on each other.
+ * The stripes of a call are always acquired in ascending order, so two orders locking overlapping products
+ * cannot deadlock. Calls made later in the same transaction may lock out of order; the acquire timeout
+ * turns a deadlock between such transactions into a failure instead of a hang.
+ * <p>
+ * The locks only cover this instance. Stock changes stay conditional statements in {@link StockService},
+ * which keeps them correct across instances.
+ */
+@Component
+public class ProductLockManager {
+
+    private final boolean enabled;
+    private final long acquireTimeoutNanos;
+    private final ReentrantLock[] stripes;
+    private final Timer waits;
+    private final Counter timeouts;
+
+    public ProductLockManager(OrderProcessingProperties properties, MeterRegistry meterRegistry) {
+        OrderProcessingProperties.Locking settings = properties.getLocking();
+        this.enabled = settings.isEnabled();
+        this.acquireTimeoutNanos = settings.getAcquireTimeout().toNanos();
+        this.stripes = new ReentrantLock[Math.max(1, settings.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.waits = Timer.builder("orders.locking.wait")
+                .description("Time spent waiting for the product locks of an order")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("orders.locking.timeouts")
+                .description("Orders that gave up waiting for the locks of their products")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether {@link #lockUntilCompletion} would lock anything here, so that callers can skip
+     * looking up the products to lock
+     */
+    public boolean isActive() {
+        return enabled && TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    /**
+     * Locks the products until the current transaction completes. Outside of a transaction, or when locking
+     * is disabled, this does nothing.
+     *
+     * @throws IllegalStateException when the locks could not all be acquired within the acquire timeout
+     */
+    public void lockUntilCompletion(Collection<Long> productIds) {
+        if (!isActive() || productIds.isEmpty()) {
+            return;
+        }
+
+        Deque<ReentrantLock> acquired = lock(productIds);
+        HeldLocks held = (HeldLocks) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            held = new HeldLocks();
+            TransactionSynchronizationManager.bindResource(this, held);
+            TransactionSynchronizationManager.registerSynchronization(held);
+        }
+        held.locks.addAll(acquired);
+    }
+
+    /**
+     * Runs the task holding the locks of the products.
+     *
+     * @throws IllegalStateException when the locks could not all be acquired within the acquire timeout
+     */
+    public void runLocked(Collection<Long> productIds, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return;
+        }
+
+        Deque<ReentrantLock> acquired = lock(productIds);
+        try {
+            task.run();
+        } finally {
+            unlock(acquired);
+        }
+    }
+
+    int stripeOf(Long productId) {
+        // Spread consecutive ids, which products get from the identity column, over the stripes
+        return Math.floorMod(Long.hashCode(productId) * 0x9E3779B9, stripes.length);
+    }
+
+    private Deque<ReentrantLock> lock(Collection<Long> productIds) {
+        int[] ordered = productIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        Deque<ReentrantLock> acquired = new ArrayDeque<>(ordered.length);
+        long start = System.nanoTime();
+        long deadline = start + acquireTimeoutNanos;
+        try {
+            for (int stripe : ordered) {
+                ReentrantLock lock = stripes[stripe];
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    throw new IllegalStateException("Timed out waiting for the locks of " + productIds.size() + " products");
+                }
+                acquired.push(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(acquired);
+            throw new IllegalStateException("Interrupted while waiting for the locks of " + productIds.size() + " products", e);
+        } catch (RuntimeException e) {
+            unlock(acquired);
+            throw e;
+        }
+        waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return acquired;
+    }
+
+    private static void unlock(Deque<ReentrantLock> acquired) {
+        while (!acquired.isEmpty()) {
+            acquired.pop().unlock();
+        }
+    }
+
+    private final class HeldLocks implements TransactionSynchronization {
+        private final Deque<ReentrantLock> locks = new ArrayDeque<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductLockManager.this);
+            unlock(locks);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.nimbleways.springboilerplate.services.implementations;
 
+import java.time.Clock;
 import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,7 @@ import org.springframework.stereotype.Service;
 
 import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
 
 @Service
 public class ProductService {
@@ -17,33 +19,43 @@ public class ProductService {
     @Autowired
     NotificationService ns;
 
+    @Autowired
+    StockService ss;
+
+    @Autowired
+    Clock clock;
+
+    @Autowired
+    ProductCache pc;
+
+    @Autowired
+    StockLedger sl;
+
     public void notifyDelay(int leadTime, Product p) {
         p.setLeadTime(leadTime);
         pr.save(p);
+        pc.evict(p.getId());
+        sl.recordLeadTime(p.getId(), leadTime);
         ns.sendDelayNotification(leadTime, p.getName());
     }
 
     public void handleSeasonalProduct(Product p) {
-        if (LocalDate.now().plusDays(p.getLeadTime()).isAfter(p.getSeasonEndDate())) {
+        if (LocalDate.now(clock).plusDays(p.getLeadTime()).isAfter(p.getSeasonEndDate())) {
             ns.sendOutOfStockNotification(p.getName());
-            p.setAvailable(0);
-            pr.save(p);
-        } else if (p.getSeasonStartDate().isAfter(LocalDate.now())) {
+            ss.markUnavailable(p);
+        } else if (p.getSeasonStartDate().isAfter(LocalDate.now(clock))) {
             ns.sendOutOfStockNotification(p.getName());
             pr.save(p);
+            pc.evict(p.getId());
         } else {
             notifyDelay(p.getLeadTime(), p);
         }
     }
 
     public void handleExpiredProduct(Product p) {
-        if (p.getAvailable() > 0 && p.getExpiryDate().isAfter(LocalDate.now())) {
-            p.setAvailable(p.getAvailable() - 1);
-            pr.save(p);
-        } else {
+        if (p.getAvailable() <= 0 || !p.getExpiryDate().isAfter(LocalDate.now(clock)) || !ss.tryDecrement(p)) {
             ns.sendExpirationNotification(p.getName(), p.getExpiryDate());
-            p.setAvailable(0);
-            pr.save(p);
+            ss.markUnavailable(p);
         }
     }
 }
\ No newline at end of file
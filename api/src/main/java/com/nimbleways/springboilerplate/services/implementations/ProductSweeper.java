@@ -0,0 +1,181 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.ProductSweepProperties;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.ledger.StockMovementType;
+import com.nimbleways.springboilerplate.services.notifications.NotificationDispatcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Zeroes the stock of expired and out-of-season products in the background, so that orders only have
+ * to check the stock. Each run looks the products up by date range, a batch at a time, and zeroes every
+ * batch with one set-based update in its own transaction; the notifications of a batch are queued when
+ * it commits.
+ */
+@Component
+@Slf4j
+public class ProductSweeper {
+
+    private static final String EXPIRED = "select id, name, expiry_date from products"
+            + " where expiry_date <= :today and type = 'EXPIRABLE' and available > 0 and id > :after"
+            + " order by id fetch first :limit rows only";
+    private static final String OUT_OF_SEASON = "select id, name, expiry_date from products"
+            + " where season_end_date <= :today and type = 'SEASONAL' and available > 0 and id > :after"
+            + " order by id fetch first :limit rows only";
+    private static final String ZERO_STOCK = "update products set available = 0 where id in (:ids) and available > 0";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HotStockCache hotStockCache;
+    private final ProductCache productCache;
+    private final StockLedger stockLedger;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ProductSweepProperties properties;
+    private final Clock clock;
+    private final DistributionSummary expiredRows;
+    private final DistributionSummary outOfSeasonRows;
+    private final Timer duration;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    public ProductSweeper(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          HotStockCache hotStockCache, ProductCache productCache, StockLedger stockLedger,
+                          NotificationDispatcher notificationDispatcher,
+                          ProductSweepProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hotStockCache = hotStockCache;
+        this.productCache = productCache;
+        this.stockLedger = stockLedger;
+        this.notificationDispatcher = notificationDispatcher;
+        this.properties = properties;
+        this.clock = clock;
+        this.expiredRows = sweptRows(meterRegistry, "expired");
+        this.outOfSeasonRows = sweptRows(meterRegistry, "out_of_season");
+        this.duration = Timer.builder("products.sweep.duration")
+                .description("Time taken by a sweep of expired and out-of-season stock")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Zeroes the stock of the products that expired or went out of season on or before today.
+     */
+    public SweepResult sweep() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+        int expired = sweep(EXPIRED, StockMovementType.EXPIRED, today, row ->
+                notificationDispatcher.sendExpirationNotification(row.name(), row.expiryDate()));
+        int outOfSeason = sweep(OUT_OF_SEASON, StockMovementType.OUT_OF_SEASON, today, row ->
+                notificationDispatcher.sendOutOfStockNotification(row.name()));
+        expiredRows.record(expired);
+        outOfSeasonRows.record(outOfSeason);
+        duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        log.info("Swept {} expired and {} out-of-season products", expired, outOfSeason);
+        return new SweepResult(expired, outOfSeason);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("product-sweeper-");
+        scheduler.initialize();
+        scheduler.schedule(this::sweepQuietly, new CronTrigger(properties.getCron()));
+        log.info("Product sweeper scheduled with cron {}", properties.getCron());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private int sweep(String query, StockMovementType reason, LocalDate today, Consumer<SweptProduct> notification) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int swept = 0;
+        long after = 0;
+        for (;;) {
+            List<SweptProduct> batch = jdbcTemplate.query(query, new MapSqlParameterSource()
+                            .addValue("today", today)
+                            .addValue("after", after)
+                            .addValue("limit", batchSize),
+                    (resultSet, rowNum) -> new SweptProduct(resultSet.getLong("id"), resultSet.getString("name"),
+                            resultSet.getObject("expiry_date", LocalDate.class)));
+            if (batch.isEmpty()) {
+                return swept;
+            }
+
+            swept += transactionTemplate.execute(status -> zeroStock(batch, reason, notification));
+            if (batch.size() < batchSize) {
+                return swept;
+            }
+            after = batch.get(batch.size() - 1).id();
+        }
+    }
+
+    private int zeroStock(List<SweptProduct> batch, StockMovementType reason, Consumer<SweptProduct> notification) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        int swept = 0;
+        for (SweptProduct product : batch) {
+            // Hot stock is zeroed in memory and reaches the table with the next write-behind flush
+            if (hotStockCache.handles(product.id())) {
+                stockLedger.recordChange(product.id(), reason, -hotStockCache.markUnavailable(product.id()));
+                swept++;
+            } else {
+                ids.add(product.id());
+                productCache.evict(product.id());
+            }
+        }
+        if (!ids.isEmpty()) {
+            swept += jdbcTemplate.update(ZERO_STOCK, new MapSqlParameterSource("ids", ids));
+            // Products zeroed concurrently are recorded twice, which leaves them at zero all the same
+            ids.forEach(id -> stockLedger.recordLevel(id, reason, 0));
+        }
+        batch.forEach(notification);
+        return swept;
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Product sweep failed, will retry on the next run", e);
+        }
+    }
+
+    private static DistributionSummary sweptRows(MeterRegistry meterRegistry, String reason) {
+        return DistributionSummary.builder("products.sweep.rows")
+                .description("Products whose stock was zeroed by a sweep, per run")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public record SweepResult(int expired, int outOfSeason) {
+    }
+
+    private record SweptProduct(long id, String name, LocalDate expiryDate) {
+    }
+}
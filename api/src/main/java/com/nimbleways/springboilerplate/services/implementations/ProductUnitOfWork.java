@@ -0,0 +1,69 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the products changed while processing an order and writes them in a single
+ * batched flush right before the surrounding transaction commits.
+ * Outside of a transaction, changes are saved immediately.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductUnitOfWork {
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final StockLedger stockLedger;
+
+    public void registerDirty(Product product) {
+        productCache.evict(product.getId());
+        stockLedger.recordLeadTime(product.getId(), product.getLeadTime());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productRepository.save(product);
+            return;
+        }
+
+        currentChanges().products.add(product);
+    }
+
+    private PendingChanges currentChanges() {
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(changes);
+        }
+        return changes;
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Set<Product> products = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (products.isEmpty()) {
+                return;
+            }
+
+            log.debug("Flushing {} changed products", products.size());
+            productRepository.saveAll(products);
+            productRepository.flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductUnitOfWork.this);
+        }
+    }
+}
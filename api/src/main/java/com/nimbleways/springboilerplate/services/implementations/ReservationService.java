@@ -0,0 +1,353 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.StockReservationProperties;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.repositories.StockReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static com.nimbleways.springboilerplate.entities.ReservationStatus.CONFIRMED;
+import static com.nimbleways.springboilerplate.entities.ReservationStatus.CONSUMED;
+import static com.nimbleways.springboilerplate.entities.ReservationStatus.EXPIRED;
+import static com.nimbleways.springboilerplate.entities.ReservationStatus.HELD;
+import static com.nimbleways.springboilerplate.entities.ReservationStatus.RELEASED;
+
+/**
+ * Two-phase stock allocation for checkout: units are reserved for an order with a time to live, then
+ * either confirmed, which keeps them taken, or released, which gives them back. Reserving takes the units
+ * through {@link StockService}, so it costs one conditional update on the product row, or a compare-and-set
+ * for hot products, and never waits on a lock held by another checkout. Settling a reservation is a
+ * conditional update on its own row. Processing the order consumes its held and confirmed reservations,
+ * so that the units they took count towards the order instead of being taken a second time.
+ * <p>
+ * Every held reservation has an entry in a {@link DelayQueue} that a single thread drains as the entries
+ * come due, expiring the reservation and giving its units back; nothing scans the table. The queue is
+ * rebuilt from the held reservations on startup. Entries of reservations settled in the meantime are left
+ * in the queue and do nothing when they come due.
+ */
+@Service
+@Slf4j
+public class ReservationService {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final StockService stockService;
+    private final TransactionTemplate transactionTemplate;
+    private final StockReservationProperties properties;
+    private final Clock clock;
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private final Counter held;
+    private final Counter refused;
+    private final Counter confirmed;
+    private final Counter released;
+    private final Counter expired;
+    private final Counter consumed;
+
+    private ExecutorService reclaimer;
+
+    public ReservationService(StockReservationRepository reservationRepository, ProductRepository productRepository,
+                              StockService stockService, TransactionTemplate transactionTemplate,
+                              StockReservationProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.stockService = stockService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.held = outcome(meterRegistry, "held");
+        this.refused = outcome(meterRegistry, "refused");
+        this.confirmed = outcome(meterRegistry, "confirmed");
+        this.released = outcome(meterRegistry, "released");
+        this.expired = outcome(meterRegistry, "expired");
+        this.consumed = outcome(meterRegistry, "consumed");
+        Gauge.builder("stock.reservations.pending", expiries, DelayQueue::size)
+                .description("Held reservations waiting for their expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes {@code quantity} units of the product for the order, for {@code ttl} or the configured default,
+     * capped to the configured maximum.
+     *
+     * @return the held reservation, or empty when fewer units are left
+     */
+    public Optional<StockReservation> reserve(Long orderId, Long productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive, got " + quantity);
+        }
+
+        Duration hold = holdFor(ttl);
+        StockReservation reservation = transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
+            if (!stockService.tryTake(product, quantity)) {
+                return null;
+            }
+            return reservationRepository.save(
+                    new StockReservation(null, orderId, productId, quantity, HELD, clock.instant().plus(hold)));
+        });
+        if (reservation == null) {
+            refused.increment();
+            return Optional.empty();
+        }
+
+        held.increment();
+        schedule(reservation.getId(), reservation.getExpiresAt());
+        return Optional.of(reservation);
+    }
+
+    /**
+     * Keeps the units of a held reservation for good.
+     *
+     * @return false when the reservation is unknown, already settled or expired
+     */
+    public boolean confirm(Long reservationId) {
+        boolean done = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                reservationRepository.transitionIfUnexpired(reservationId, HELD, CONFIRMED, clock.instant()) == 1));
+        if (done) {
+            confirmed.increment();
+        }
+        return done;
+    }
+
+    /**
+     * Gives the units of a held reservation back, whether or not it has expired yet.
+     *
+     * @return false when the reservation is unknown or already settled
+     */
+    public boolean release(Long reservationId) {
+        boolean done = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                reservationRepository.findById(reservationId)
+                        .filter(reservation -> reservationRepository.transition(reservationId, HELD, RELEASED) == 1)
+                        .map(this::putBack)
+                        .isPresent()));
+        if (done) {
+            released.increment();
+        }
+        return done;
+    }
+
+    /**
+     * Settles the held and confirmed reservations of the orders as consumed and counts their units towards
+     * the orders' lines, in the caller's transaction when there is one so that they are restored if
+     * processing the orders rolls back. Units reserved beyond what an order asks for are given back.
+     * A reservation settled concurrently, by its expiry or a release, is skipped: its units were given back.
+     *
+     * @return the lines of the orders that had reservations, with only the units left to take; lines the
+     * reservations cover entirely are dropped
+     */
+    public Map<Long, List<OrderLine>> consume(Map<Long, List<OrderLine>> linesByOrderId) {
+        if (linesByOrderId.isEmpty()) {
+            return Map.of();
+        }
+
+        return transactionTemplate.execute(status -> {
+            List<StockReservation> settled = new ArrayList<>();
+            for (StockReservation reservation : reservationRepository.findByOrderIdInAndStatusIn(
+                    linesByOrderId.keySet(), List.of(HELD, CONFIRMED))) {
+                if (reservationRepository.transition(reservation.getId(), reservation.getStatus(), CONSUMED) == 1) {
+                    consumed.increment();
+                    settled.add(reservation);
+                }
+            }
+            return withoutReservedUnits(linesByOrderId, settled, stockService::putBack);
+        });
+    }
+
+    /**
+     * Counts the held and confirmed reservations of the orders towards their lines like {@link #consume},
+     * without settling them or giving anything back, for a simulation.
+     *
+     * @param surplus told of the units reserved beyond what an order asks for, by product id, which
+     *                {@link #consume} would give back
+     * @return the lines of the orders that have reservations, with only the units left to take
+     */
+    public Map<Long, List<OrderLine>> applyReserved(Map<Long, List<OrderLine>> linesByOrderId,
+                                                    BiConsumer<Long, Integer> surplus) {
+        if (linesByOrderId.isEmpty()) {
+            return Map.of();
+        }
+
+        return withoutReservedUnits(linesByOrderId, reservationRepository.findByOrderIdInAndStatusIn(
+                linesByOrderId.keySet(), List.of(HELD, CONFIRMED)), surplus);
+    }
+
+    private static Map<Long, List<OrderLine>> withoutReservedUnits(Map<Long, List<OrderLine>> linesByOrderId,
+                                                                   List<StockReservation> reservations,
+                                                                   BiConsumer<Long, Integer> surplus) {
+        Map<Long, Map<Long, Integer>> unitsByOrderId = new HashMap<>();
+        for (StockReservation reservation : reservations) {
+            unitsByOrderId.computeIfAbsent(reservation.getOrderId(), orderId -> new HashMap<>())
+                    .merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, List<OrderLine>> remaining = new HashMap<>();
+        unitsByOrderId.forEach((orderId, units) ->
+                remaining.put(orderId, withoutReservedUnits(linesByOrderId.get(orderId), units, surplus)));
+        return remaining;
+    }
+
+    private static List<OrderLine> withoutReservedUnits(List<OrderLine> lines, Map<Long, Integer> reservedUnits,
+                                                        BiConsumer<Long, Integer> surplus) {
+        List<OrderLine> remaining = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            Product product = line.getProduct();
+            int reserved = product == null
+                    ? 0
+                    : Math.min(reservedUnits.getOrDefault(product.getId(), 0), line.getQuantity());
+            if (reserved == 0) {
+                remaining.add(line);
+                continue;
+            }
+
+            reservedUnits.merge(product.getId(), -reserved, Integer::sum);
+            if (reserved < line.getQuantity()) {
+                remaining.add(new OrderLine(line.getId(), line.getOrder(), product, line.getQuantity() - reserved));
+            }
+        }
+        reservedUnits.forEach((productId, units) -> {
+            if (units > 0) {
+                surplus.accept(productId, units);
+            }
+        });
+        return remaining;
+    }
+
+    public Optional<StockReservation> find(Long reservationId) {
+        return reservationRepository.findById(reservationId);
+    }
+
+    /**
+     * Gives the units of a held reservation back once its time is up.
+     *
+     * @return false when the reservation was settled in the meantime or has not expired yet
+     */
+    boolean expire(Long reservationId) {
+        boolean done = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                reservationRepository.findById(reservationId)
+                        .filter(reservation -> reservationRepository.transitionIfExpired(
+                                reservationId, HELD, EXPIRED, clock.instant()) == 1)
+                        .map(this::putBack)
+                        .isPresent()));
+        if (done) {
+            expired.increment();
+        }
+        return done;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isReclaimEnabled()) {
+            return;
+        }
+
+        reservationRepository.findByStatus(HELD)
+                .forEach(reservation -> schedule(reservation.getId(), reservation.getExpiresAt()));
+        reclaimer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("reservation-reclaimer-"));
+        reclaimer.execute(this::reclaim);
+        log.info("Reservation reclaimer started with {} held reservations", expiries.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (reclaimer != null) {
+            reclaimer.shutdownNow();
+            reclaimer.awaitTermination(RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reclaim() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Expiry expiry;
+            try {
+                expiry = expiries.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                expire(expiry.reservationId);
+            } catch (RuntimeException e) {
+                log.error("Failed to expire reservation {}, will retry: {}", expiry.reservationId, e.getMessage());
+                schedule(expiry.reservationId, clock.instant().plus(RETRY_DELAY));
+            }
+        }
+    }
+
+    private StockReservation putBack(StockReservation reservation) {
+        stockService.putBack(reservation.getProductId(), reservation.getQuantity());
+        return reservation;
+    }
+
+    private void schedule(Long reservationId, Instant expiresAt) {
+        if (properties.isReclaimEnabled()) {
+            expiries.add(new Expiry(reservationId, expiresAt));
+        }
+    }
+
+    private Duration holdFor(Duration ttl) {
+        if (ttl == null) {
+            return properties.getDefaultTtl();
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Reservation ttl must be positive, got " + ttl);
+        }
+        return ttl.compareTo(properties.getMaxTtl()) > 0 ? properties.getMaxTtl() : ttl;
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("stock.reservations")
+                .description("Reservations made, refused and settled")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private final class Expiry implements Delayed {
+        private final Long reservationId;
+        private final Instant expiresAt;
+
+        private Expiry(Long reservationId, Instant expiresAt) {
+            this.reservationId = reservationId;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(clock.instant(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Expiry) other).expiresAt);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the strategies' effects to an in-memory copy of the stock, so that a run of orders can be
+ * simulated without writing anything. Each product is copied the first time it is seen and every later
+ * order works on that copy, so the units taken by one order are gone for the next. Notifications are
+ * dropped, only the lead time of a delay is kept for the line it was sent for. Not thread-safe: one
+ * simulation runs on one thread.
+ */
+public class SimulatedOrderProcessingContext implements OrderProcessingContext {
+
+    private final Map<Long, Product> products = new HashMap<>();
+    private final Map<Long, Integer> returned = new HashMap<>();
+    private int taken;
+    private Integer leadTime;
+
+    /**
+     * @return the copy of the product the simulation works on, taken from {@code loaded} on first sight
+     */
+    public Product copyOf(Product loaded) {
+        return products.computeIfAbsent(loaded.getId(), id -> {
+            Integer units = returned.remove(id);
+            Integer available = units == null ? loaded.getAvailable() : availableOf(loaded) + units;
+            return new Product(id, loaded.getLeadTime(), available, loaded.getType(), loaded.getName(),
+                    loaded.getExpiryDate(), loaded.getSeasonStartDate(), loaded.getSeasonEndDate(), loaded.getVersion());
+        });
+    }
+
+    /**
+     * Gives units back to the copied stock of a product, or to its copy once it is made.
+     */
+    public void putBack(Long productId, int units) {
+        Product copy = products.get(productId);
+        if (copy != null) {
+            copy.setAvailable(availableOf(copy) + units);
+        } else {
+            returned.merge(productId, units, Integer::sum);
+        }
+    }
+
+    /**
+     * @return the units taken since the last call
+     */
+    public int drainTaken() {
+        int drained = taken;
+        taken = 0;
+        return drained;
+    }
+
+    /**
+     * @return the lead time of the delay announced since the last call, or null when none was
+     */
+    public Integer drainLeadTime() {
+        Integer drained = leadTime;
+        leadTime = null;
+        return drained;
+    }
+
+    @Override
+    public int take(Product product, int quantity) {
+        int available = availableOf(product);
+        int units = Math.max(0, Math.min(available, quantity));
+        product.setAvailable(available - units);
+        taken += units;
+        return units;
+    }
+
+    @Override
+    public void markUnavailable(Product product) {
+        product.setAvailable(0);
+    }
+
+    @Override
+    public void registerDirty(Product product) {
+        // The copy already holds the change
+    }
+
+    @Override
+    public void sendDelayNotification(int leadTime, String productName) {
+        this.leadTime = leadTime;
+    }
+
+    @Override
+    public void sendOutOfStockNotification(String productName) {
+    }
+
+    @Override
+    public void sendExpirationNotification(String productName, LocalDate expiryDate) {
+    }
+
+    private static int availableOf(Product product) {
+        return product.getAvailable() != null ? product.getAvailable() : 0;
+    }
+}
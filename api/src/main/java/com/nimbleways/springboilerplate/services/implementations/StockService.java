@@ -0,0 +1,174 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.ledger.StockMovementType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies stock changes with conditional statements so that concurrent orders on the same
+ * product can neither oversell nor lose a decrement. {@code Product.available} is never
+ * written back from the entity; the in-memory value is only kept in line for the caller.
+ * Hot products are served from {@link HotStockCache} when it is enabled. Every change written to the
+ * table evicts the product from {@link ProductCache}, and every change is recorded in the {@link StockLedger}.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private final ProductRepository productRepository;
+    private final HotStockCache hotStockCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCache productCache;
+    private final StockLedger stockLedger;
+
+    /**
+     * @return true when a unit was taken, false when the product turned out to be out of stock
+     */
+    public boolean tryDecrement(Product product) {
+        if (!tryTake(product, 1)) {
+            product.setAvailable(0);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes {@code quantity} units only if that many are left.
+     */
+    public boolean tryTake(Product product, int quantity) {
+        if (hotStockCache.handles(product.getId())) {
+            boolean taken = hotStockCache.tryTake(product.getId(), quantity);
+            product.setAvailable(hotStockCache.available(product.getId()));
+            if (taken) {
+                stockLedger.recordChange(product.getId(), StockMovementType.TAKEN, -quantity);
+            }
+            return taken;
+        }
+
+        if (productRepository.decrementAvailableBy(product.getId(), quantity) == 0) {
+            return false;
+        }
+
+        productCache.evict(product.getId());
+        stockLedger.recordChange(product.getId(), StockMovementType.TAKEN, -quantity);
+        product.setAvailable(product.getAvailable() - quantity);
+        return true;
+    }
+
+    /**
+     * Takes up to {@code quantity} units, as many as are left. The common case where the whole
+     * quantity is available costs a single statement; otherwise what is left is read and taken with
+     * a compare-and-set, starting over if another order changed the stock in between.
+     *
+     * @return the number of units taken, from 0 to {@code quantity}
+     */
+    public int take(Product product, int quantity) {
+        if (hotStockCache.handles(product.getId())) {
+            int taken = hotStockCache.take(product.getId(), quantity);
+            product.setAvailable(hotStockCache.available(product.getId()));
+            stockLedger.recordChange(product.getId(), StockMovementType.TAKEN, -taken);
+            return taken;
+        }
+
+        if (tryTake(product, quantity)) {
+            return quantity;
+        }
+
+        for (;;) {
+            int current = productRepository.findAvailableById(product.getId()).orElse(0);
+            int taken = Math.min(Math.max(current, 0), quantity);
+            if (taken == 0) {
+                product.setAvailable(0);
+                return 0;
+            }
+            if (productRepository.compareAndSetAvailable(product.getId(), current, current - taken) == 1) {
+                productCache.evict(product.getId());
+                stockLedger.recordChange(product.getId(), StockMovementType.TAKEN, -taken);
+                product.setAvailable(current - taken);
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Takes the whole quantity of each line, sending the conditional decrements as a single JDBC batch.
+     * Nothing is taken for a line whose quantity is not fully available.
+     *
+     * @return the lines whose quantity could not be taken
+     */
+    public List<OrderLine> tryTakeAll(List<OrderLine> lines) {
+        List<OrderLine> refused = new ArrayList<>();
+        List<OrderLine> batched = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            if (hotStockCache.handles(line.getProduct().getId())) {
+                if (!tryTake(line.getProduct(), line.getQuantity())) {
+                    refused.add(line);
+                }
+            } else {
+                batched.add(line);
+            }
+        }
+        if (batched.isEmpty()) {
+            return refused;
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(
+                "update products set available = available - ? where id = ? and available >= ?",
+                batched.stream()
+                        .map(line -> new Object[]{line.getQuantity(), line.getProduct().getId(), line.getQuantity()})
+                        .toList());
+        for (int i = 0; i < batched.size(); i++) {
+            OrderLine line = batched.get(i);
+            if (updated[i] == 0) {
+                refused.add(line);
+            } else {
+                productCache.evict(line.getProduct().getId());
+                stockLedger.recordChange(line.getProduct().getId(), StockMovementType.TAKEN, -line.getQuantity());
+                line.getProduct().setAvailable(line.getProduct().getAvailable() - line.getQuantity());
+            }
+        }
+        return refused;
+    }
+
+    /**
+     * Gives back units taken earlier, such as a released reservation.
+     */
+    public void putBack(Long productId, int quantity) {
+        if (hotStockCache.handles(productId)) {
+            hotStockCache.putBack(productId, quantity);
+        } else if (productRepository.adjustAvailable(productId, quantity) > 0) {
+            productCache.evict(productId);
+        } else {
+            return;
+        }
+        stockLedger.recordChange(productId, StockMovementType.RETURNED, quantity);
+    }
+
+    public void markUnavailable(Product product) {
+        StockMovementType reason = reasonForZeroing(product.getType());
+        if (hotStockCache.handles(product.getId())) {
+            // Units taken concurrently may reach the ledger later, so the zeroing is recorded as a change too
+            stockLedger.recordChange(product.getId(), reason, -hotStockCache.markUnavailable(product.getId()));
+        } else if (productRepository.markUnavailable(product.getId()) > 0) {
+            productCache.evict(product.getId());
+            stockLedger.recordLevel(product.getId(), reason, 0);
+        }
+        product.setAvailable(0);
+    }
+
+    private static StockMovementType reasonForZeroing(ProductType type) {
+        if (ProductType.EXPIRABLE.equals(type)) {
+            return StockMovementType.EXPIRED;
+        }
+        return ProductType.SEASONAL.equals(type) ? StockMovementType.OUT_OF_SEASON : StockMovementType.ZEROED;
+    }
+}
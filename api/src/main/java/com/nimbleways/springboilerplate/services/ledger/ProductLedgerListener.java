@@ -0,0 +1,26 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+
+/**
+ * Opens the ledger of every product created through JPA with its initial stock. The ledger is looked up
+ * lazily, since entity listeners are created with the entity manager factory it depends on.
+ */
+@Component
+public class ProductLedgerListener {
+
+    private final ObjectProvider<StockLedger> stockLedger;
+
+    public ProductLedgerListener(ObjectProvider<StockLedger> stockLedger) {
+        this.stockLedger = stockLedger;
+    }
+
+    @PostPersist
+    public void opened(Product product) {
+        stockLedger.ifAvailable(ledger -> ledger.recordOpening(product.getId(), product.getAvailable(), product.getLeadTime()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+/**
+ * A product whose stock in the products table differs from the one rebuilt from the ledger.
+ */
+public record StockDiscrepancy(Long productId, int recorded, int actual) {
+}
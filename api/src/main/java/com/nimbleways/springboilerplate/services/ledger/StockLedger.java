@@ -0,0 +1,358 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+import com.nimbleways.springboilerplate.config.StockLedgerProperties;
+import com.nimbleways.springboilerplate.services.implementations.HotStockCache;
+import com.nimbleways.springboilerplate.services.implementations.StockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only history of the stock and lead time of products. {@link StockService} keeps the products table
+ * current with conditional statements, which is what keeps orders from overselling; every change it makes is
+ * also recorded here, buffered per transaction and appended as one JDBC batch right
+ * before the transaction commits, so that a rolled back change leaves no trace.
+ * <p>
+ * A movement either changes the stock by a quantity or sets it to a level. Levels are only recorded by
+ * statements that hold the row lock of the product, so that they are appended after every change they
+ * overwrite. The ledger is folded into {@code stock_snapshots} at a fixed interval; the stock of a product
+ * up to any position of the ledger is its last snapshot before that position plus the movements after it.
+ */
+@Component
+@Slf4j
+public class StockLedger {
+
+    private static final String APPEND = "insert into stock_movements"
+            + " (product_id, type, quantity, absolute, lead_time, recorded_at) values (?, ?, ?, ?, ?, ?)";
+    private static final String APPEND_IMPORTED = "insert into stock_movements"
+            + " (product_id, type, quantity, absolute, lead_time, recorded_at)"
+            + " select id, 'IMPORTED', available, true, lead_time, :recordedAt from products where name in (:names)";
+    private static final String TAIL = "select product_id, quantity, absolute, lead_time from stock_movements"
+            + " where id > ? and id <= ? order by id";
+    private static final String SNAPSHOTS = "select s.product_id, s.available, s.lead_time from stock_snapshots s"
+            + " where s.ledger_position = (select max(m.ledger_position) from stock_snapshots m"
+            + " where m.product_id = s.product_id and m.ledger_position <= ?)";
+    private static final String SNAPSHOT_POSITION = "select max(ledger_position) from stock_snapshots where ledger_position <= ?";
+    private static final String INSERT_SNAPSHOT = "insert into stock_snapshots"
+            + " (product_id, ledger_position, available, lead_time, taken_at) values (?, ?, ?, ?, ?)";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate separateTransaction;
+    private final HotStockCache hotStockCache;
+    private final StockLedgerProperties properties;
+    private final Clock clock;
+    private final Counter appended;
+    private final Timer snapshots;
+
+    private ScheduledExecutorService snapshotter;
+
+    public StockLedger(NamedParameterJdbcTemplate namedJdbcTemplate, TransactionTemplate transactionTemplate,
+                       HotStockCache hotStockCache, StockLedgerProperties properties, Clock clock,
+                       MeterRegistry meterRegistry) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.jdbcTemplate = namedJdbcTemplate != null ? namedJdbcTemplate.getJdbcTemplate() : null;
+        this.transactionTemplate = transactionTemplate;
+        // With auto-commit off, a statement outside a transaction is rolled back when its connection returns to the pool
+        this.separateTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotStockCache = hotStockCache;
+        this.properties = properties;
+        this.clock = clock;
+        this.appended = Counter.builder("stock.ledger.appended")
+                .description("Movements appended to the stock ledger")
+                .register(meterRegistry);
+        this.snapshots = Timer.builder("stock.ledger.snapshot.duration")
+                .description("Time taken to fold the tail of the stock ledger into snapshots")
+                .register(meterRegistry);
+    }
+
+    public void recordChange(Long productId, StockMovementType type, int quantity) {
+        if (quantity != 0) {
+            append(new Movement(productId, type, quantity, false, null));
+        }
+    }
+
+    /**
+     * Records that the stock was set to {@code level}, by a statement holding the row lock of the product.
+     */
+    public void recordLevel(Long productId, StockMovementType type, int level) {
+        append(new Movement(productId, type, level, true, null));
+    }
+
+    public void recordOpening(Long productId, Integer available, Integer leadTime) {
+        append(new Movement(productId, StockMovementType.OPENING, available != null ? available : 0, true, leadTime));
+    }
+
+    public void recordLeadTime(Long productId, Integer leadTime) {
+        append(new Movement(productId, StockMovementType.LEAD_TIME, 0, false, leadTime));
+    }
+
+    /**
+     * Records the current level of the products a catalog import just wrote, in the import's transaction.
+     */
+    public void recordImported(Collection<String> names) {
+        if (!properties.isEnabled() || names.isEmpty()) {
+            return;
+        }
+        int count = namedJdbcTemplate.update(APPEND_IMPORTED, new MapSqlParameterSource()
+                .addValue("recordedAt", Timestamp.from(clock.instant()))
+                .addValue("names", names));
+        appended.increment(count);
+    }
+
+    /**
+     * Rebuilds the stock of every product from the last snapshots and the tail of the ledger.
+     */
+    public Map<Long, StockLevel> rebuild() {
+        Long position = jdbcTemplate.queryForObject("select max(id) from stock_movements", Long.class);
+        return position == null ? Map.of() : rebuild(position, 0);
+    }
+
+    /**
+     * Replays the movements recorded on {@code day}, in the zone of the clock, on top of the snapshots before it.
+     *
+     * @return the stock at the end of the day of the products that moved during it
+     */
+    public Map<Long, StockLevel> replay(LocalDate day) {
+        Instant start = day.atStartOfDay(clock.getZone()).toInstant();
+        Instant end = day.plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+        Long[] range = jdbcTemplate.queryForObject(
+                "select min(id), max(id) from stock_movements where recorded_at >= ? and recorded_at < ?",
+                (resultSet, rowNum) -> new Long[]{resultSet.getObject(1, Long.class), resultSet.getObject(2, Long.class)},
+                Timestamp.from(start), Timestamp.from(end));
+        return range == null || range[0] == null ? Map.of() : rebuild(range[1], range[0]);
+    }
+
+    /**
+     * Compares the products table with the ledger. Hot products, whose table row lags behind their
+     * in-memory stock, are left out, and so are changes still in flight: it is meant for a quiet system.
+     */
+    public List<StockDiscrepancy> verify() {
+        Map<Long, StockLevel> rebuilt = rebuild();
+        List<StockDiscrepancy> discrepancies = new ArrayList<>();
+        jdbcTemplate.query("select id, available from products", resultSet -> {
+            Long productId = resultSet.getLong("id");
+            StockLevel level = rebuilt.get(productId);
+            int actual = resultSet.getInt("available");
+            if (level != null && level.available() != actual && !hotStockCache.handles(productId)) {
+                discrepancies.add(new StockDiscrepancy(productId, level.available(), actual));
+            }
+        });
+        return discrepancies;
+    }
+
+    /**
+     * Folds the movements appended since the last snapshot, up to the settle lag, into a new snapshot of
+     * each product that moved.
+     *
+     * @return the number of products snapshotted
+     */
+    public int snapshot() {
+        long start = System.nanoTime();
+        Instant now = clock.instant();
+        Integer count = transactionTemplate.execute(status -> {
+            long from = position(jdbcTemplate.queryForObject(SNAPSHOT_POSITION, Long.class, Long.MAX_VALUE));
+            Long to = jdbcTemplate.queryForObject("select max(id) from stock_movements where recorded_at <= ?",
+                    Long.class, Timestamp.from(now.minus(properties.getSettleLag())));
+            if (to == null || to <= from) {
+                return 0;
+            }
+
+            Map<Long, StockLevel> levels = rebuild(to, from + 1);
+            Timestamp takenAt = Timestamp.from(now);
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, levels.entrySet(), 500, (statement, entry) -> {
+                statement.setLong(1, entry.getKey());
+                statement.setLong(2, to);
+                statement.setInt(3, entry.getValue().available());
+                statement.setObject(4, entry.getValue().leadTime(), Types.INTEGER);
+                statement.setTimestamp(5, takenAt);
+            });
+            return levels.size();
+        });
+        snapshots.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return count != null ? count : 0;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stock-ledger-snapshot-"));
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+    }
+
+    /**
+     * @param upTo      last position of the ledger to apply
+     * @param movedFrom when positive, only the products with movements from this position on are returned
+     */
+    private Map<Long, StockLevel> rebuild(long upTo, long movedFrom) {
+        long from = position(jdbcTemplate.queryForObject(SNAPSHOT_POSITION, Long.class, upTo));
+        Map<Long, Fold> folds = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TAIL);
+            statement.setFetchSize(properties.getFetchSize());
+            statement.setLong(1, from);
+            statement.setLong(2, upTo);
+            return statement;
+        }, resultSet -> {
+            Fold fold = folds.computeIfAbsent(resultSet.getLong(1), productId -> new Fold());
+            fold.apply(resultSet.getInt(2), resultSet.getBoolean(3), resultSet.getObject(4, Integer.class));
+        });
+        Set<Long> tailProducts = new HashSet<>(folds.keySet());
+
+        Map<Long, StockLevel> levels = new HashMap<>();
+        jdbcTemplate.query(SNAPSHOTS, resultSet -> {
+            long productId = resultSet.getLong(1);
+            StockLevel snapshot = new StockLevel(resultSet.getInt(2), resultSet.getObject(3, Integer.class));
+            Fold fold = folds.remove(productId);
+            levels.put(productId, fold != null ? fold.onto(snapshot) : snapshot);
+        }, from);
+        folds.forEach((productId, fold) -> levels.put(productId, fold.onto(new StockLevel(0, null))));
+
+        if (movedFrom == from + 1) {
+            levels.keySet().retainAll(tailProducts);
+        } else if (movedFrom > 0) {
+            levels.keySet().retainAll(jdbcTemplate.queryForList(
+                    "select distinct product_id from stock_movements where id >= ? and id <= ?", Long.class, movedFrom, upTo));
+        }
+        return levels;
+    }
+
+    private void append(Movement movement) {
+        if (!properties.isEnabled() || movement.productId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeSeparately(List.of(movement));
+            return;
+        }
+
+        PendingMovements pending = (PendingMovements) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingMovements();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        if (pending.written) {
+            // Recorded by another synchronization after ours already ran, possibly once the transaction committed
+            writeSeparately(List.of(movement));
+            return;
+        }
+        pending.movements.add(movement);
+    }
+
+    private void writeSeparately(List<Movement> movements) {
+        separateTransaction.executeWithoutResult(status -> write(movements));
+    }
+
+    private void write(List<Movement> movements) {
+        Timestamp recordedAt = Timestamp.from(clock.instant());
+        jdbcTemplate.batchUpdate(APPEND, movements, 500, (statement, movement) -> {
+            statement.setLong(1, movement.productId());
+            statement.setString(2, movement.type().name());
+            statement.setInt(3, movement.quantity());
+            statement.setBoolean(4, movement.absolute());
+            statement.setObject(5, movement.leadTime(), Types.INTEGER);
+            statement.setTimestamp(6, recordedAt);
+        });
+        appended.increment(movements.size());
+    }
+
+    private void snapshotQuietly() {
+        try {
+            int products = snapshot();
+            log.debug("Snapshotted the stock ledger for {} products", products);
+        } catch (RuntimeException e) {
+            log.error("Stock ledger snapshot failed, will retry on the next run", e);
+        }
+    }
+
+    private static long position(Long position) {
+        return position != null ? position : 0;
+    }
+
+    private record Movement(Long productId, StockMovementType type, int quantity, boolean absolute, Integer leadTime) {
+    }
+
+    private static final class Fold {
+        private int quantity;
+        private boolean absolute;
+        private Integer leadTime;
+
+        private void apply(int quantity, boolean absolute, Integer leadTime) {
+            if (absolute) {
+                this.quantity = quantity;
+                this.absolute = true;
+            } else {
+                this.quantity += quantity;
+            }
+            if (leadTime != null) {
+                this.leadTime = leadTime;
+            }
+        }
+
+        private StockLevel onto(StockLevel snapshot) {
+            return new StockLevel(absolute ? quantity : snapshot.available() + quantity,
+                    leadTime != null ? leadTime : snapshot.leadTime());
+        }
+    }
+
+    private final class PendingMovements implements TransactionSynchronization {
+        private final List<Movement> movements = new ArrayList<>();
+        private boolean written;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            written = true;
+            if (!movements.isEmpty()) {
+                write(movements);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+/**
+ * Stock and lead time of a product as rebuilt from the ledger.
+ */
+public record StockLevel(int available, Integer leadTime) {
+}
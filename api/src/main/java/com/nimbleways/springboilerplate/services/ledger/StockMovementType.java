@@ -0,0 +1,21 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+public enum StockMovementType {
+    /**
+     * Level of a product when it was created, or when the ledger started.
+     */
+    OPENING,
+    /**
+     * Level set by a catalog import.
+     */
+    IMPORTED,
+    TAKEN,
+    /**
+     * Units given back, such as a released reservation.
+     */
+    RETURNED,
+    EXPIRED,
+    OUT_OF_SEASON,
+    ZEROED,
+    LEAD_TIME
+}
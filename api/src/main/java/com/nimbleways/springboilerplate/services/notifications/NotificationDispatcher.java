@@ -0,0 +1,216 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+import com.nimbleways.springboilerplate.config.NotificationDispatchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends notifications off the request thread. Notifications raised inside a transaction are held
+ * back until it commits (and dropped on rollback), then queued for a small pool of workers that
+ * drain the queue in batches and skip repeats of the same notification within the dedup window.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final NotificationSink sink;
+    private final NotificationDispatchProperties properties;
+    private final BlockingQueue<PendingNotification> queue;
+    private final Map<NotificationEvent, Long> lastSentAt = new ConcurrentHashMap<>();
+    private final Map<NotificationType, Counter> requested = new EnumMap<>(NotificationType.class);
+    private final Counter dropped;
+    private final Counter deduplicated;
+    private final Counter failed;
+    private final Timer latency;
+    private final MeterRegistry meterRegistry;
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public NotificationDispatcher(NotificationSink sink, NotificationDispatchProperties properties, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("notifications.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting to be sent")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("notifications.dropped")
+                .description("Notifications dropped because the queue was full")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("notifications.deduplicated")
+                .description("Notifications skipped because an identical one was sent within the dedup window")
+                .register(meterRegistry);
+        this.failed = Counter.builder("notifications.failed")
+                .description("Notifications whose delivery threw an exception")
+                .register(meterRegistry);
+        this.latency = Timer.builder("notifications.dispatch.latency")
+                .description("Time between a notification being queued and being sent")
+                .register(meterRegistry);
+        for (NotificationType type : NotificationType.values()) {
+            requested.put(type, Counter.builder("notifications.requested")
+                    .description("Notifications raised while processing orders, before dedup and rollbacks")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void sendDelayNotification(int leadTime, String productName) {
+        enqueue(NotificationEvent.delay(leadTime, productName));
+    }
+
+    public void sendOutOfStockNotification(String productName) {
+        enqueue(NotificationEvent.outOfStock(productName));
+    }
+
+    public void sendExpirationNotification(String productName, LocalDate expiryDate) {
+        enqueue(NotificationEvent.expiration(productName, expiryDate));
+    }
+
+    public void enqueue(NotificationEvent event) {
+        requested.get(event.type()).increment();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+
+        Outbox outbox = (Outbox) TransactionSynchronizationManager.getResource(this);
+        if (outbox == null) {
+            outbox = new Outbox();
+            TransactionSynchronizationManager.bindResource(this, outbox);
+            TransactionSynchronizationManager.registerSynchronization(outbox);
+        }
+        outbox.events.add(event);
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        int workerCount = Math.max(1, properties.getWorkers());
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("notification-dispatcher-"));
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainQueue);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Notification queue not drained on shutdown, {} notifications lost", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private void publish(NotificationEvent event) {
+        if (!queue.offer(new PendingNotification(event, System.nanoTime()))) {
+            dropped.increment();
+            log.warn("Notification queue full, dropping {} notification for {}", event.type(), event.productName());
+        }
+    }
+
+    private void drainQueue() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<PendingNotification> batch) {
+        long now = System.nanoTime();
+        long window = properties.getDedupWindow().toNanos();
+        for (PendingNotification pending : batch) {
+            NotificationEvent event = pending.event();
+            if (!claim(event, now, window)) {
+                deduplicated.increment();
+                continue;
+            }
+
+            send(event);
+            latency.record(System.nanoTime() - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        lastSentAt.values().removeIf(sentAt -> now - sentAt >= window);
+    }
+
+    private boolean claim(NotificationEvent event, long now, long window) {
+        Long previous = lastSentAt.putIfAbsent(event, now);
+        if (previous == null) {
+            return true;
+        }
+        return now - previous >= window && lastSentAt.replace(event, previous, now);
+    }
+
+    private void send(NotificationEvent event) {
+        try {
+            sink.send(event);
+            meterRegistry.counter("notifications.sent", "type", event.type().name()).increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("Failed to send {} notification for {}: {}", event.type(), event.productName(), e.getMessage());
+        }
+    }
+
+    private record PendingNotification(NotificationEvent event, long enqueuedAt) {
+    }
+
+    private final class Outbox implements TransactionSynchronization {
+        private final List<NotificationEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            events.forEach(NotificationDispatcher.this::publish);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(NotificationDispatcher.this);
+        }
+    }
+}
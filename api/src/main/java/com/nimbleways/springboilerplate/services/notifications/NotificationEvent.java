@@ -0,0 +1,18 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+import java.time.LocalDate;
+
+public record NotificationEvent(NotificationType type, String productName, Integer leadTime, LocalDate expiryDate) {
+
+    public static NotificationEvent delay(int leadTime, String productName) {
+        return new NotificationEvent(NotificationType.DELAY, productName, leadTime, null);
+    }
+
+    public static NotificationEvent outOfStock(String productName) {
+        return new NotificationEvent(NotificationType.OUT_OF_STOCK, productName, null, null);
+    }
+
+    public static NotificationEvent expiration(String productName, LocalDate expiryDate) {
+        return new NotificationEvent(NotificationType.EXPIRATION, productName, null, expiryDate);
+    }
+}
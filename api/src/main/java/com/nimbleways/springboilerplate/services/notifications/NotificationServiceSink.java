@@ -0,0 +1,21 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+import com.nimbleways.springboilerplate.services.implementations.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class NotificationServiceSink implements NotificationSink {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public void send(NotificationEvent event) {
+        switch (event.type()) {
+            case DELAY -> notificationService.sendDelayNotification(event.leadTime(), event.productName());
+            case OUT_OF_STOCK -> notificationService.sendOutOfStockNotification(event.productName());
+            case EXPIRATION -> notificationService.sendExpirationNotification(event.productName(), event.expiryDate());
+        }
+    }
+}
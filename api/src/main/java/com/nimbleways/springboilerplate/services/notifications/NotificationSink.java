@@ -0,0 +1,6 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+public interface NotificationSink {
+
+    void send(NotificationEvent event);
+}
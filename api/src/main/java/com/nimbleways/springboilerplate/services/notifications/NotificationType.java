@@ -0,0 +1,7 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+public enum NotificationType {
+    DELAY,
+    OUT_OF_STOCK,
+    EXPIRATION
+}
@@ -1,47 +1,42 @@
 package com.nimbleways.springboilerplate.strategies;
 
 import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 
 @Component
-@RequiredArgsConstructor
+@ProductTypeKey("EXPIRABLE")
 public class ExpirableProductStrategy implements ProductAvailabilityStrategy{
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
 
     @Override
-    public void processOrder(Product product) {
-        if (isAvailableAndNotExpired(product)) {
-            decrementAvailability(product);
-        } else {
-            handleExpiredProduct(product);
+    public ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context) {
+        if (product.getExpiryDate() != null && !product.getExpiryDate().isAfter(today)) {
+            // ProductSweeper zeroes the stock and notifies, off the order path
+            return ProcessingOutcome.EXPIRED;
         }
+        int taken = isAvailableAndNotExpired(product, today) ? context.take(product, quantity) : 0;
+        if (taken == quantity) {
+            return ProcessingOutcome.DECREMENTED;
+        }
+        ProcessingOutcome shortage = handleExpiredProduct(product, today, context);
+        return taken > 0 ? ProcessingOutcome.PARTIALLY_FULFILLED : shortage;
     }
 
-    private boolean isAvailableAndNotExpired(Product product) {
+    private boolean isAvailableAndNotExpired(Product product, LocalDate today) {
         return product.getAvailable() != null
                 && product.getAvailable() > 0
                 && product.getExpiryDate() != null
-                && product.getExpiryDate().isAfter(LocalDate.now());
-    }
-
-    private void decrementAvailability(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
+                && product.getExpiryDate().isAfter(today);
     }
 
-    private void handleExpiredProduct(Product product) {
+    private ProcessingOutcome handleExpiredProduct(Product product, LocalDate today, OrderProcessingContext context) {
         LocalDate expiryDate = product.getExpiryDate() != null
                 ? product.getExpiryDate()
-                : LocalDate.now();
+                : today;
 
-        notificationService.sendExpirationNotification(product.getName(), expiryDate);
-        product.setAvailable(0);
-        productRepository.save(product);
+        context.sendExpirationNotification(product.getName(), expiryDate);
+        context.markUnavailable(product);
+        return expiryDate.isAfter(today) ? ProcessingOutcome.OUT_OF_STOCK : ProcessingOutcome.EXPIRED;
     }
 }
@@ -1,46 +1,40 @@
 package com.nimbleways.springboilerplate.strategies;
 
 import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+
 @Component
-@RequiredArgsConstructor
+@ProductTypeKey("NORMAL")
 public class NormalProductStrategy implements ProductAvailabilityStrategy {
 
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
-
     @Override
-    public void processOrder(Product product) {
-        if (isProductAvailable(product)) {
-            decrementAvailability(product);
-        } else {
-            handleOutOfStock(product);
+    public ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context) {
+        int taken = isProductAvailable(product) ? context.take(product, quantity) : 0;
+        if (taken == quantity) {
+            return ProcessingOutcome.DECREMENTED;
         }
+        ProcessingOutcome shortage = handleOutOfStock(product, context);
+        return taken > 0 ? ProcessingOutcome.PARTIALLY_FULFILLED : shortage;
     }
 
     private boolean isProductAvailable(Product product) {
         return product.getAvailable() != null && product.getAvailable() > 0;
     }
 
-    private void decrementAvailability(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
-    }
-
-    private void handleOutOfStock(Product product) {
+    private ProcessingOutcome handleOutOfStock(Product product, OrderProcessingContext context) {
         int leadTime = product.getLeadTime() != null ? product.getLeadTime() : 0;
         if (leadTime > 0) {
-            notifyCustomerAboutDelay(product, leadTime);
+            notifyCustomerAboutDelay(product, context, leadTime);
+            return ProcessingOutcome.DELAYED;
         }
+        return ProcessingOutcome.OUT_OF_STOCK;
     }
 
-    private void notifyCustomerAboutDelay(Product product, int leadTime) {
+    private void notifyCustomerAboutDelay(Product product, OrderProcessingContext context, int leadTime) {
         product.setLeadTime(leadTime);
-        productRepository.save(product);
-        notificationService.sendDelayNotification(leadTime, product.getName());
+        context.registerDirty(product);
+        context.sendDelayNotification(leadTime, product.getName());
     }
 }
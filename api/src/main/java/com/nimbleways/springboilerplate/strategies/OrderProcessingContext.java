@@ -0,0 +1,33 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import com.nimbleways.springboilerplate.entities.Product;
+
+import java.time.LocalDate;
+
+/**
+ * The effects a strategy may have while processing a product. Strategies only decide what should
+ * happen; the context decides how and when it is applied.
+ */
+public interface OrderProcessingContext {
+
+    /**
+     * Takes up to {@code quantity} units in a single atomic operation.
+     *
+     * @return the number of units taken, from 0 when the product turned out to be out of stock
+     * to {@code quantity}
+     */
+    int take(Product product, int quantity);
+
+    void markUnavailable(Product product);
+
+    /**
+     * Persists the changes made to the product itself, such as its lead time.
+     */
+    void registerDirty(Product product);
+
+    void sendDelayNotification(int leadTime, String productName);
+
+    void sendOutOfStockNotification(String productName);
+
+    void sendExpirationNotification(String productName, LocalDate expiryDate);
+}
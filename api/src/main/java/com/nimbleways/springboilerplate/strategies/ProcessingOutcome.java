@@ -0,0 +1,14 @@
+package com.nimbleways.springboilerplate.strategies;
+
+/**
+ * What happened to a product when an order went through its strategy.
+ */
+public enum ProcessingOutcome {
+    DECREMENTED,
+    /** Some units were taken; the rest went through the same handling as a product out of stock. */
+    PARTIALLY_FULFILLED,
+    DELAYED,
+    OUT_OF_STOCK,
+    OUT_OF_SEASON,
+    EXPIRED
+}
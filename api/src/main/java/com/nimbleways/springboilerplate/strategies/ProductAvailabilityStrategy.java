@@ -2,7 +2,15 @@ package com.nimbleways.springboilerplate.strategies;
 
 import com.nimbleways.springboilerplate.entities.Product;
 
+import java.time.LocalDate;
+
 public interface ProductAvailabilityStrategy {
 
-    void processOrder(Product product);
+    /**
+     * Takes {@code quantity} units of the product. When fewer are left, the units that are there ship
+     * now and the rest is handled like a product out of stock, e.g. delayed by its lead time.
+     *
+     * @param today the day the order is processed on, the same for all of its products
+     */
+    ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context);
 }
@@ -1,28 +1,70 @@
 package com.nimbleways.springboilerplate.strategies;
 
 import com.nimbleways.springboilerplate.entities.ProductType;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Looks up the strategy of a product type in an immutable table built once, from the strategies annotated
+ * with {@link ProductTypeKey}. The table is also the set of product types this deployment knows, which
+ * {@link com.nimbleways.springboilerplate.entities.ProductTypeConverter} reads products against. Building it
+ * fails when a strategy has no key, when two share one, or when a built-in type is left without a strategy.
+ */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class ProductStrategyFactory {
 
-    private final NormalProductStrategy normalProductStrategy;
-    private final SeasonalProductStrategy seasonalProductStrategy;
-    private final ExpirableProductStrategy expirableProductStrategy;
+    private final Map<ProductType, ProductAvailabilityStrategy> strategies;
 
+    public ProductStrategyFactory(Collection<ProductAvailabilityStrategy> strategies) {
+        Map<ProductType, ProductAvailabilityStrategy> byType = new HashMap<>();
+        for (ProductAvailabilityStrategy strategy : strategies) {
+            Class<?> strategyClass = ClassUtils.getUserClass(strategy);
+            ProductTypeKey key = AnnotatedElementUtils.findMergedAnnotation(strategyClass, ProductTypeKey.class);
+            if (key == null) {
+                throw new IllegalStateException(strategyClass.getName() + " is not annotated with @"
+                        + ProductTypeKey.class.getSimpleName());
+            }
 
-    public ProductAvailabilityStrategy getStrategy(ProductType productType) {
-        Map<ProductType, ProductAvailabilityStrategy> strategies = Map.of(
-                ProductType.NORMAL, normalProductStrategy,
-                ProductType.SEASONAL, seasonalProductStrategy,
-                ProductType.EXPIRABLE, expirableProductStrategy
-        );
+            ProductType type;
+            try {
+                type = ProductType.valueOf(key.value());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid key on " + strategyClass.getName() + ": " + e.getMessage(), e);
+            }
+            ProductAvailabilityStrategy previous = byType.putIfAbsent(type, strategy);
+            if (previous != null) {
+                throw new IllegalStateException("Both " + ClassUtils.getUserClass(previous).getName() + " and "
+                        + strategyClass.getName() + " are registered for product type " + type);
+            }
+        }
 
-        ProductAvailabilityStrategy strategy = strategies.get(productType);
+        List<ProductType> missing = ProductType.builtIn().stream().filter(type -> !byType.containsKey(type)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("No strategy registered for product types " + missing);
+        }
+
+        this.strategies = Map.copyOf(byType);
+        log.info("Registered product strategies for types {}", byType.keySet());
+    }
+
+    /**
+     * @return the product types a strategy is registered for
+     */
+    public Set<ProductType> productTypes() {
+        return strategies.keySet();
+    }
+
+    public ProductAvailabilityStrategy getStrategy(ProductType productType) {
+        ProductAvailabilityStrategy strategy = productType != null ? strategies.get(productType) : null;
         if (strategy == null) {
             throw new IllegalArgumentException("Unknown product type: " + productType);
         }
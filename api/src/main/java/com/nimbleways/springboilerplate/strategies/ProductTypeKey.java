@@ -0,0 +1,24 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a {@link ProductAvailabilityStrategy} bean as the strategy of a product type, adding the type
+ * if it is new. Any such bean in the context is picked up by {@link ProductStrategyFactory}. Annotated
+ * classes in the packages of {@code products.strategies.packages} become beans without being components,
+ * see {@link com.nimbleways.springboilerplate.config.ProductStrategyScanConfig}.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ProductTypeKey {
+
+    /**
+     * The name the product type is stored under, in upper case.
+     */
+    String value();
+}
@@ -1,70 +1,64 @@
 package com.nimbleways.springboilerplate.strategies;
 
 import com.nimbleways.springboilerplate.entities.Product;
-import com.nimbleways.springboilerplate.repositories.ProductRepository;
-import com.nimbleways.springboilerplate.services.implementations.NotificationService;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 
 @Component
-@RequiredArgsConstructor
+@ProductTypeKey("SEASONAL")
 public class SeasonalProductStrategy implements ProductAvailabilityStrategy{
-    private final ProductRepository productRepository;
-    private final NotificationService notificationService;
 
     @Override
-    public void processOrder(Product product) {
-        if (isInSeasonAndAvailable(product)) {
-            decrementAvailability(product);
-        } else {
-            handleSeasonalUnavailability(product);
+    public ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context) {
+        if (product.getSeasonEndDate() != null && !today.isBefore(product.getSeasonEndDate())) {
+            // ProductSweeper zeroes the stock and notifies, off the order path
+            return ProcessingOutcome.OUT_OF_SEASON;
+        }
+        int taken = isInSeasonAndAvailable(product, today) ? context.take(product, quantity) : 0;
+        if (taken == quantity) {
+            return ProcessingOutcome.DECREMENTED;
         }
+        ProcessingOutcome shortage = handleSeasonalUnavailability(product, today, context);
+        return taken > 0 ? ProcessingOutcome.PARTIALLY_FULFILLED : shortage;
     }
 
-    private boolean isInSeasonAndAvailable(Product product) {
-        LocalDate now = LocalDate.now();
+    private boolean isInSeasonAndAvailable(Product product, LocalDate today) {
         return product.getSeasonStartDate() != null
                 && product.getSeasonEndDate() != null
-                && !now.isBefore(product.getSeasonStartDate())
-                && now.isBefore(product.getSeasonEndDate())
+                && !today.isBefore(product.getSeasonStartDate())
+                && today.isBefore(product.getSeasonEndDate())
                 && product.getAvailable() != null
                 && product.getAvailable() > 0;
     }
 
-    private void decrementAvailability(Product product) {
-        product.setAvailable(product.getAvailable() - 1);
-        productRepository.save(product);
-    }
-
-    private void handleSeasonalUnavailability(Product product) {
-        LocalDate now = LocalDate.now();
+    private ProcessingOutcome handleSeasonalUnavailability(Product product, LocalDate today, OrderProcessingContext context) {
         Integer leadTime = product.getLeadTime() != null ? product.getLeadTime() : 0;
-        LocalDate availabilityDate = now.plusDays(leadTime);
+        LocalDate availabilityDate = today.plusDays(leadTime);
 
         // Check if product will be out of season by the time it arrives
         if (product.getSeasonEndDate() != null && availabilityDate.isAfter(product.getSeasonEndDate())) {
-            markAsUnavailable(product);
-        } else if (product.getSeasonStartDate() != null && now.isBefore(product.getSeasonStartDate())) {
+            markAsUnavailable(product, context);
+            return ProcessingOutcome.OUT_OF_SEASON;
+        } else if (product.getSeasonStartDate() != null && today.isBefore(product.getSeasonStartDate())) {
             // Season hasn't started yet
-            notificationService.sendOutOfStockNotification(product.getName());
-            productRepository.save(product);
+            context.sendOutOfStockNotification(product.getName());
+            return ProcessingOutcome.OUT_OF_SEASON;
         } else {
             // Out of stock but within season - notify about delay
-            notifyDelay(product, leadTime);
+            notifyDelay(product, context, leadTime);
+            return ProcessingOutcome.DELAYED;
         }
     }
 
-    private void markAsUnavailable(Product product) {
-        notificationService.sendOutOfStockNotification(product.getName());
-        product.setAvailable(0);
-        productRepository.save(product);
+    private void markAsUnavailable(Product product, OrderProcessingContext context) {
+        context.sendOutOfStockNotification(product.getName());
+        context.markUnavailable(product);
     }
 
-    private void notifyDelay(Product product, int leadTime) {
+    private void notifyDelay(Product product, OrderProcessingContext context, int leadTime) {
         product.setLeadTime(leadTime);
-        productRepository.save(product);
-        notificationService.sendDelayNotification(leadTime, product.getName());
+        context.registerDirty(product);
+        context.sendDelayNotification(leadTime, product.getName());
     }
 }
@@ -0,0 +1,24 @@
+package com.nimbleways.plugins.preorder;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+import com.nimbleways.springboilerplate.strategies.ProductAvailabilityStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductTypeKey;
+
+import java.time.LocalDate;
+
+/**
+ * Stands for a strategy shipped in another jar: it lives outside the application's package and is not a
+ * component, so only listing its package under {@code products.strategies.packages} registers it.
+ * Pre-ordered products ship once they are released, after their lead time.
+ */
+@ProductTypeKey("PRE_ORDER")
+public class PreOrderProductStrategy implements ProductAvailabilityStrategy {
+
+    @Override
+    public ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context) {
+        context.sendDelayNotification(product.getLeadTime() != null ? product.getLeadTime() : 0, product.getName());
+        return ProcessingOutcome.DELAYED;
+    }
+}
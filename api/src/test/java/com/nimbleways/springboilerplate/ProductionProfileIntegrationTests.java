@@ -0,0 +1,163 @@
+package com.nimbleways.springboilerplate;
+
+import com.nimbleways.springboilerplate.contollers.OrderController;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersResponse;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.ledger.StockLedger;
+import com.nimbleways.springboilerplate.services.ledger.StockMovementType;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the {@code prod} profile against PostgreSQL in a container, or against H2 in PostgreSQL mode
+ * when Docker is not available, and runs the batch endpoint with its settings.
+ */
+@SpringBootTest
+@ActiveProfiles("prod")
+@DisplayName("Production profile Integration Tests")
+class ProductionProfileIntegrationTests {
+
+    private static final int ORDER_COUNT = 300;
+    private static final int ITEMS_PER_ORDER = 5;
+
+    private static final PostgreSQLContainer<?> POSTGRES = DockerClientFactory.instance().isDockerAvailable()
+            ? new PostgreSQLContainer<>("postgres:14-alpine")
+            : null;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (POSTGRES != null) {
+            POSTGRES.start();
+            registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+            registry.add("spring.datasource.username", POSTGRES::getUsername);
+            registry.add("spring.datasource.password", POSTGRES::getPassword);
+            return;
+        }
+
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:mem:prod;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Test
+    @DisplayName("Should apply the production pool settings and keep sessions out of the web layer")
+    void shouldApplyProductionSettings() {
+        assertEquals(20, dataSource.getMaximumPoolSize());
+        assertFalse(dataSource.isAutoCommit());
+        assertEquals("true", dataSource.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+        assertTrue(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should let Hibernate pick the dialect of the database it connects to")
+    void shouldDetectDialect() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+
+        assertEquals(POSTGRES != null, dialect instanceof PostgreSQL81Dialect, dialect.toString());
+    }
+
+    @Test
+    @DisplayName("Should process a batch of orders and commit their stock changes")
+    void shouldProcessOrders() {
+        List<Long> orderIds = createOrders();
+
+        ProcessOrdersResponse response = orderController.processOrders(new ProcessOrdersRequest(orderIds));
+
+        assertEquals(ORDER_COUNT, response.processed());
+        // The first product is in one order out of ten
+        assertEquals(ORDER_COUNT - ORDER_COUNT / 10, availableOf("Prod item 0"));
+    }
+
+    @Test
+    @DisplayName("Should commit ledger movements recorded outside a transaction despite auto-commit being off")
+    void shouldCommitLedgerMovementsOutsideTransaction() {
+        Long productId = productRepository.save(new Product(null, 5, 10, ProductType.NORMAL, "Prod ledger item",
+                null, null, null, null)).getId();
+
+        stockLedger.recordChange(productId, StockMovementType.RETURNED, 2);
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from stock_movements where product_id = ? and type = 'RETURNED'", Integer.class, productId));
+    }
+
+    private int availableOf(String name) {
+        return productRepository.findFirstByName(name).orElseThrow().getAvailable();
+    }
+
+    private List<Long> createOrders() {
+        return transactionTemplate.execute(status -> {
+            List<Product> products = productRepository.saveAll(IntStream.range(0, ITEMS_PER_ORDER * 10)
+                    .mapToObj(i -> new Product(null, 5, ORDER_COUNT, ProductType.NORMAL, "Prod item " + i,
+                            null, null, null, null))
+                    .toList());
+            return IntStream.range(0, ORDER_COUNT)
+                    .mapToObj(i -> {
+                        Set<Product> items = IntStream.range(0, ITEMS_PER_ORDER)
+                                .mapToObj(j -> products.get((i + j * 10) % products.size()))
+                                .collect(Collectors.toCollection(HashSet::new));
+                        return orderRepository.save(new Order(null, items)).getId();
+                    })
+                    .toList();
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.contollers.AsyncOrderController;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersResponse;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.implementations.OrderExecutor;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("AsyncOrderController Unit Tests")
+class AsyncOrderControllerTest {
+
+    @Mock
+    private OrderProcessingService orderProcessingService;
+
+    @Mock
+    private OrderExecutor orderExecutor;
+
+    private AsyncOrderController orderController;
+
+    @BeforeEach
+    void setUp() {
+        orderController = new AsyncOrderController(orderProcessingService, orderExecutor,
+                new OrderProcessingProperties());
+    }
+
+    @Test
+    @DisplayName("Should process the order on the executor and complete the deferred result")
+    void shouldProcessOrderOnExecutor() {
+        runSubmittedWorkInline();
+        when(orderProcessingService.processOrderById(1L)).thenReturn(new ProcessOrderResponse(1L));
+
+        DeferredResult<ProcessOrderResponse> result = orderController.processOrder(1L);
+
+        assertEquals(new ProcessOrderResponse(1L), result.getResult());
+        verify(orderExecutor, times(1)).submit(any());
+        verify(orderProcessingService, times(1)).processOrderById(1L);
+    }
+
+    @Test
+    @DisplayName("Should complete with a 404 error when the order does not exist")
+    void shouldCompleteWithNotFoundWhenOrderMissing() {
+        runSubmittedWorkInline();
+        when(orderProcessingService.processOrderById(999L)).thenThrow(
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: 999"));
+
+        DeferredResult<ProcessOrderResponse> result = orderController.processOrder(999L);
+
+        ResponseStatusException error = assertInstanceOf(ResponseStatusException.class, result.getResult());
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when the executor is saturated")
+    void shouldRejectWhenExecutorSaturated() {
+        when(orderExecutor.submit(any())).thenThrow(new RejectedExecutionException("full"));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderController.processOrder(1L));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        verifyNoInteractions(orderProcessingService);
+    }
+
+    @Test
+    @DisplayName("Should delegate batch processing on the executor")
+    void shouldDelegateBatchProcessing() {
+        runSubmittedWorkInline();
+        List<Long> orderIds = List.of(1L, 2L);
+        when(orderProcessingService.processOrders(orderIds)).thenReturn(List.of(
+                OrderProcessingResult.processed(1L),
+                OrderProcessingResult.notFound(2L)
+        ));
+
+        DeferredResult<ProcessOrdersResponse> result = orderController.processOrders(new ProcessOrdersRequest(orderIds));
+
+        ProcessOrdersResponse response = assertInstanceOf(ProcessOrdersResponse.class, result.getResult());
+        assertEquals(1, response.processed());
+        assertEquals(1, response.notFound());
+    }
+
+    private void runSubmittedWorkInline() {
+        when(orderExecutor.submit(any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(0);
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+}
@@ -1,25 +1,24 @@
 package com.nimbleways.springboilerplate.controllers;
 
 import com.nimbleways.springboilerplate.contollers.OrderController;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersRequest;
+import com.nimbleways.springboilerplate.dto.order.ProcessOrdersResponse;
 import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
-import com.nimbleways.springboilerplate.entities.Order;
-import com.nimbleways.springboilerplate.repositories.OrderRepository;
 import com.nimbleways.springboilerplate.services.OrderProcessingService;
 import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,40 +29,28 @@ class OrderControllerTest {
     @Mock
     private OrderProcessingService orderProcessingService;
 
-    @Mock
-    private OrderRepository orderRepository;
-
     @InjectMocks
     private OrderController orderController;
 
-    private Order testOrder;
-
-    @BeforeEach
-    void setUp() {
-        testOrder = new Order();
-        testOrder.setId(1L);
-        testOrder.setItems(new HashSet<>());
-    }
-
     @Test
     @DisplayName("Should successfully process an order when order exists")
     void shouldSuccessfullyProcessOrderWhenOrderExists() {
         Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
+        when(orderProcessingService.processOrderById(orderId)).thenReturn(new ProcessOrderResponse(orderId));
 
         ProcessOrderResponse response = orderController.processOrder(orderId);
 
         assertNotNull(response);
         assertEquals(orderId, response.id());
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderProcessingService, times(1)).processOrder(testOrder);
+        verify(orderProcessingService, only()).processOrderById(orderId);
     }
 
     @Test
     @DisplayName("Should throw ResponseStatusException when order not found")
     void shouldThrowExceptionWhenOrderNotFound() {
         Long orderId = 999L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderProcessingService.processOrderById(orderId)).thenThrow(
+                new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found with id: " + orderId));
 
         ResponseStatusException exception = assertThrows(
                 ResponseStatusException.class,
@@ -71,94 +58,48 @@ class OrderControllerTest {
         );
 
         assertTrue(exception.getMessage().contains("Order not found with id: 999"));
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderProcessingService, never()).processOrder(any());
-    }
-
-    @Test
-    @DisplayName("Should handle null order ID gracefully")
-    void shouldHandleNullOrderIdGracefully() {
-        Long orderId = null;
-
-        assertThrows(Exception.class, () -> orderController.processOrder(orderId));
-        verify(orderProcessingService, never()).processOrder(any());
+        verify(orderProcessingService, times(1)).processOrderById(orderId);
     }
 
     @Test
     @DisplayName("Should propagate service exceptions")
     void shouldPropagateServiceExceptions() {
         Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
-        doThrow(new RuntimeException("Service error"))
-                .when(orderProcessingService).processOrder(any());
+        when(orderProcessingService.processOrderById(orderId)).thenThrow(new RuntimeException("Service error"));
 
         assertThrows(RuntimeException.class,
                 () -> orderController.processOrder(orderId));
 
-        verify(orderRepository, times(1)).findById(orderId);
-        verify(orderProcessingService, times(1)).processOrder(testOrder);
-    }
-
-    @Test
-    @DisplayName("Should process order with zero ID")
-    void shouldProcessOrderWithZeroId() {
-        Long orderId = 0L;
-        Order orderWithZeroId = new Order();
-        orderWithZeroId.setId(0L);
-        orderWithZeroId.setItems(new HashSet<>());
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(orderWithZeroId));
-
-        ProcessOrderResponse response = orderController.processOrder(orderId);
-
-        assertNotNull(response);
-        assertEquals(0L, response.id());
-        verify(orderProcessingService, times(1)).processOrder(orderWithZeroId);
+        verify(orderProcessingService, times(1)).processOrderById(orderId);
     }
 
     @Test
     @DisplayName("Should process order with large ID")
     void shouldProcessOrderWithLargeId() {
         Long orderId = Long.MAX_VALUE;
-        Order orderWithLargeId = new Order();
-        orderWithLargeId.setId(orderId);
-        orderWithLargeId.setItems(new HashSet<>());
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(orderWithLargeId));
-
-        ProcessOrderResponse response = orderController.processOrder(orderId);
-
-        assertNotNull(response);
-        assertEquals(orderId, response.id());
-        verify(orderProcessingService, times(1)).processOrder(orderWithLargeId);
-    }
-
-    @Test
-    @DisplayName("Should handle order with null items")
-    void shouldHandleOrderWithNullItems() {
-        Long orderId = 1L;
-        Order orderWithNullItems = new Order();
-        orderWithNullItems.setId(orderId);
-        orderWithNullItems.setItems(null);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(orderWithNullItems));
+        when(orderProcessingService.processOrderById(orderId)).thenReturn(new ProcessOrderResponse(orderId));
 
         ProcessOrderResponse response = orderController.processOrder(orderId);
 
-        assertNotNull(response);
         assertEquals(orderId, response.id());
-        verify(orderProcessingService, times(1)).processOrder(orderWithNullItems);
     }
 
     @Test
-    @DisplayName("Should verify service is called exactly once per request")
-    void shouldVerifyServiceCalledExactlyOnce() {
-        Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(testOrder));
-
-        orderController.processOrder(orderId);
-
-        verify(orderProcessingService, times(1)).processOrder(testOrder);
-        verify(orderProcessingService, only()).processOrder(any());
+    @DisplayName("Should delegate batch processing and summarize the results")
+    void shouldDelegateBatchProcessingAndSummarizeResults() {
+        List<Long> orderIds = List.of(1L, 2L, 3L);
+        when(orderProcessingService.processOrders(orderIds)).thenReturn(List.of(
+                OrderProcessingResult.processed(1L),
+                OrderProcessingResult.notFound(2L),
+                OrderProcessingResult.failed(3L, "Invalid product type: FOO")
+        ));
+
+        ProcessOrdersResponse response = orderController.processOrders(new ProcessOrdersRequest(orderIds));
+
+        assertEquals(1, response.processed());
+        assertEquals(1, response.notFound());
+        assertEquals(1, response.failed());
+        assertEquals(3, response.results().size());
+        verify(orderProcessingService, only()).processOrders(orderIds);
     }
-}
\ No newline at end of file
+}
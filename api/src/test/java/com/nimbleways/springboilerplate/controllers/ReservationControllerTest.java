@@ -0,0 +1,59 @@
+package com.nimbleways.springboilerplate.controllers;
+
+import com.nimbleways.springboilerplate.contollers.ReservationController;
+import com.nimbleways.springboilerplate.dto.reservation.ReserveStockRequest;
+import com.nimbleways.springboilerplate.services.implementations.ReservationService;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("ReservationController Unit Tests")
+class ReservationControllerTest {
+
+    @Mock
+    private ReservationService reservationService;
+
+    @InjectMocks
+    private ReservationController reservationController;
+
+    @Test
+    @DisplayName("Should answer 404 when the order of the reservation does not exist")
+    void shouldReturnNotFoundForUnknownOrder() {
+        when(reservationService.reserve(eq(999L), eq(1L), eq(2), any()))
+                .thenThrow(new DataIntegrityViolationException("fk_stock_reservations_order"));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> reservationController.reserve(new ReserveStockRequest(999L, 1L, 2, null)));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("Order not found with id: 999", exception.getReason());
+    }
+
+    @Test
+    @DisplayName("Should answer 404 when the product of the reservation does not exist")
+    void shouldReturnNotFoundForUnknownProduct() {
+        when(reservationService.reserve(eq(1L), eq(999L), eq(2), any()))
+                .thenThrow(new EntityNotFoundException("Product not found with id: 999"));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> reservationController.reserve(new ReserveStockRequest(1L, 999L, 2, null)));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("Product not found with id: 999", exception.getReason());
+    }
+}
@@ -0,0 +1,49 @@
+package com.nimbleways.springboilerplate.entities;
+
+import com.nimbleways.springboilerplate.strategies.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.strategies.NormalProductStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
+import com.nimbleways.springboilerplate.strategies.SeasonalProductStrategy;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@UnitTest
+@DisplayName("ProductTypeConverter Tests")
+class ProductTypeConverterTest {
+
+    private final ProductTypeConverter converter = new ProductTypeConverter(new ProductStrategyFactory(List.of(
+            new NormalProductStrategy(), new SeasonalProductStrategy(), new ExpirableProductStrategy())));
+
+    @Test
+    @DisplayName("Should store product types by name")
+    void shouldStoreProductTypesByName() {
+        assertEquals("SEASONAL", converter.convertToDatabaseColumn(ProductType.SEASONAL));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    @DisplayName("Should handle case-insensitive product types")
+    void shouldHandleCaseInsensitiveProductTypes() {
+        assertEquals(ProductType.NORMAL, converter.convertToEntityAttribute("normal"));
+        assertEquals(ProductType.SEASONAL, converter.convertToEntityAttribute("SEASONAL"));
+        assertEquals(ProductType.EXPIRABLE, converter.convertToEntityAttribute(" ExPiRaBlE "));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    @DisplayName("Should throw exception for invalid product type")
+    void shouldThrowExceptionForInvalidProductType() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> converter.convertToEntityAttribute("INVALID_TYPE"));
+
+        assertTrue(exception.getMessage().contains("Invalid product type: INVALID_TYPE"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Slf4j
+@DisplayName("OrderRepository Integration Tests")
+class OrderRepositoryIntegrationTests {
+
+    private static final int ORDER_COUNT = 100;
+    private static final int ITEMS_PER_ORDER = 5;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should load an order with its items in a single query")
+    void shouldLoadOrderWithItemsInSingleQuery() {
+        Long orderId = createOrders(1).get(0);
+
+        long statements = countStatements(() -> orderRepository.findWithItemsById(orderId)
+                .map(order -> order.getItems().size())
+                .orElseThrow());
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    @DisplayName("Should compare queries per order between lazy and fetch-join loading")
+    void shouldCompareQueriesPerOrderBetweenLazyAndFetchJoinLoading() {
+        List<Long> orderIds = createOrders(ORDER_COUNT);
+
+        long lazyStatements = countStatements(() -> orderIds.stream()
+                .map(orderRepository::findById)
+                .mapToInt(order -> order.orElseThrow().getItems().size())
+                .sum());
+        long fetchJoinStatements = countStatements(() -> orderRepository.findAllWithItemsByIdIn(orderIds).stream()
+                .mapToInt(order -> order.getItems().size())
+                .sum());
+
+        log.info("Queries per order: lazy={}, fetch join={}",
+                (double) lazyStatements / ORDER_COUNT, (double) fetchJoinStatements / ORDER_COUNT);
+        assertEquals(2L * ORDER_COUNT, lazyStatements);
+        assertEquals(1, fetchJoinStatements);
+    }
+
+    @Test
+    @DisplayName("Should return each order once with all its items")
+    void shouldReturnEachOrderOnceWithAllItems() {
+        List<Long> orderIds = createOrders(3);
+
+        List<Order> orders = transactionTemplate.execute(status -> orderRepository.findAllWithItemsByIdIn(orderIds));
+
+        assertEquals(3, orders.size());
+        assertEquals(Set.copyOf(orderIds), orders.stream().map(Order::getId).collect(Collectors.toSet()));
+        orders.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+    }
+
+    private long countStatements(Supplier<Integer> loader) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            int loadedItems = loader.get();
+            log.debug("Loaded {} items", loadedItems);
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private List<Long> createOrders(int orderCount) {
+        // Product names are unique, and the tests share the database
+        String batch = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> IntStream.range(0, orderCount)
+                .mapToObj(i -> {
+                    Set<Product> products = IntStream.range(0, ITEMS_PER_ORDER)
+                            .mapToObj(j -> productRepository.save(
+                                    new Product(null, 5, 10, ProductType.NORMAL, "Product " + batch + " " + i + "-" + j, null, null, null, null)))
+                            .collect(Collectors.toCollection(HashSet::new));
+                    return orderRepository.save(new Order(null, products));
+                })
+                .map(Order::getId)
+                .collect(Collectors.toList()));
+    }
+}
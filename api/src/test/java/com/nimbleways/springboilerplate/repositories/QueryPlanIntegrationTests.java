@@ -0,0 +1,81 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with H2's {@code EXPLAIN} that the hot queries are served by the indexes of the Liquibase schema.
+ */
+@SpringBootTest
+@DisplayName("Query plan Integration Tests")
+class QueryPlanIntegrationTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should look products up by name through the index of the unique name constraint")
+    void shouldFindProductByNameThroughIndex() {
+        assertUsesIndex("UK_PRODUCTS_NAME", "select id from products where name = 'USB Cable' limit 1");
+        assertUsesIndex("UK_PRODUCTS_NAME", "update products set available = 10 where name = 'USB Cable'");
+    }
+
+    @Test
+    @DisplayName("Should sweep expired and out-of-season products through the type and date indexes")
+    void shouldSweepThroughTypeAndDateIndexes() {
+        assertUsesIndex("IDX_PRODUCTS_TYPE_EXPIRY_DATE", "select id, name, expiry_date from products"
+                + " where expiry_date <= DATE '2024-01-01' and type = 'EXPIRABLE' and available > 0 and id > 0"
+                + " order by id fetch first 500 rows only");
+        assertUsesIndex("IDX_PRODUCTS_TYPE_SEASON_END_DATE", "select id, name, expiry_date from products"
+                + " where season_end_date <= DATE '2024-01-01' and type = 'SEASONAL' and available > 0 and id > 0"
+                + " order by id fetch first 500 rows only");
+    }
+
+    @Test
+    @DisplayName("Should filter products by type through an index")
+    void shouldFilterByTypeThroughIndex() {
+        assertUsesIndex("IDX_PRODUCTS_TYPE_", "select id from products where type = 'NORMAL'");
+    }
+
+    @Test
+    @DisplayName("Should load the lines and items of orders without scanning the join tables")
+    void shouldLoadOrdersWithoutTableScans() {
+        assertNoTableScan("select l.id, p.id from order_lines l join products p on p.id = l.product_id"
+                + " where l.order_id in (1, 2, 3)");
+        assertNoTableScan("select o.id, p.id from orders o left join order_items i on o.id = i.order_id"
+                + " left join products p on p.id = i.product_id where o.id in (1, 2, 3)");
+        assertNoTableScan("select order_id from processed_orders where order_id = 1");
+    }
+
+    @Test
+    @DisplayName("Should take stock by primary key")
+    void shouldTakeStockByPrimaryKey() {
+        assertNoTableScan("update products set available = available - 2 where id = 1 and available >= 2");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = plan(sql);
+        assertTrue(plan.contains("." + index), "Expected " + index + " to be used, got: " + plan);
+        assertNoTableScan(plan, sql);
+    }
+
+    private void assertNoTableScan(String sql) {
+        assertNoTableScan(plan(sql), sql);
+    }
+
+    private static void assertNoTableScan(String plan, String sql) {
+        assertFalse(plan.contains(".TABLESCAN"), "Expected no table scan for " + sql + ", got: " + plan);
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class).toUpperCase(Locale.ROOT);
+    }
+}
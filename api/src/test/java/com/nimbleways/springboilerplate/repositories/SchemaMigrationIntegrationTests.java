@@ -0,0 +1,87 @@
+package com.nimbleways.springboilerplate.repositories;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Liquibase changelog on a database whose tables Hibernate created before the schema moved
+ * to Liquibase, as it stood before products were versioned.
+ */
+@DisplayName("Schema migration Integration Tests")
+class SchemaMigrationIntegrationTests {
+
+    @Test
+    @DisplayName("Should bring a schema created by Hibernate up to date")
+    void shouldMigrateHibernateSchema() throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:legacy-schema;DB_CLOSE_DELAY=-1", "sa", "", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("create table products (id bigint generated by default as identity primary key,"
+                    + " lead_time int, available int, type varchar(255), name varchar(255), expiry_date date,"
+                    + " season_start_date date, season_end_date date)");
+            jdbcTemplate.execute("create table orders (id bigint generated by default as identity primary key)");
+            jdbcTemplate.execute("create table order_items (order_id bigint not null references orders(id),"
+                    + " product_id bigint not null references products(id), primary key (order_id, product_id))");
+            jdbcTemplate.execute("create index idx_products_name on products (name)");
+            jdbcTemplate.execute("create index idx_products_expiry_date on products (expiry_date)");
+            jdbcTemplate.execute("create index idx_products_season_end_date on products (season_end_date)");
+            jdbcTemplate.update("insert into products (available, type, name) values (5, 'NORMAL', 'Legacy item')");
+
+            migrate(dataSource);
+
+            assertEquals(0L, jdbcTemplate.queryForObject("select version from products where name = 'Legacy item'", Long.class));
+            List<String> indexes = jdbcTemplate.queryForList("select distinct lower(index_name) from information_schema.indexes"
+                    + " where lower(table_name) = 'products'", String.class);
+            assertTrue(indexes.containsAll(List.of("idx_products_type_expiry_date",
+                    "idx_products_type_season_end_date")), indexes.toString());
+            assertTrue(indexes.stream().anyMatch(index -> index.startsWith("uk_products_name")), indexes.toString());
+            assertFalse(indexes.contains("idx_products_name"), indexes.toString());
+            assertFalse(indexes.contains("idx_products_expiry_date"), indexes.toString());
+            assertFalse(indexes.contains("idx_products_season_end_date"), indexes.toString());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to make product names unique while products share a name")
+    void shouldHaltOnDuplicateProductNames() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:duplicate-names;DB_CLOSE_DELAY=-1", "sa", "", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("create table products (id bigint generated by default as identity primary key,"
+                    + " lead_time int, available int, type varchar(255), name varchar(255), expiry_date date,"
+                    + " season_start_date date, season_end_date date)");
+            jdbcTemplate.update("insert into products (available, type, name) values (5, 'NORMAL', 'Twin item')");
+            jdbcTemplate.update("insert into products (available, type, name) values (3, 'NORMAL', 'Twin item')");
+
+            Exception exception = assertThrows(Exception.class, () -> migrate(dataSource));
+
+            assertTrue(exception.getMessage().contains("Products share a name"), exception.getMessage());
+            assertEquals(2L, jdbcTemplate.queryForObject("select count(*) from products where name = 'Twin item'", Long.class));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static void migrate(SingleConnectionDataSource dataSource) throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+}
@@ -0,0 +1,87 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+import com.nimbleways.springboilerplate.strategies.ExpirableProductStrategy;
+import com.nimbleways.springboilerplate.strategies.NormalProductStrategy;
+import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
+import com.nimbleways.springboilerplate.strategies.SeasonalProductStrategy;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@UnitTest
+@DisplayName("CsvCatalogReader Tests")
+class CsvCatalogReaderTest {
+
+    private static final ProductTypeConverter TYPES = new ProductTypeConverter(new ProductStrategyFactory(List.of(
+            new NormalProductStrategy(), new SeasonalProductStrategy(), new ExpirableProductStrategy())));
+
+    @Test
+    @DisplayName("Should read columns by header name, in any order")
+    void shouldReadColumnsByHeaderName() throws IOException {
+        CsvCatalogReader reader = reader("""
+                type,name,available,leadTime,expiryDate,seasonStartDate,seasonEndDate
+                expirable,Milk,30,15,2030-01-31,,
+                """);
+
+        assertEquals(new CatalogRow("Milk", ProductType.EXPIRABLE, 30, 15, LocalDate.of(2030, 1, 31), null, null),
+                reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should unquote fields holding commas and quotes")
+    void shouldUnquoteFields() throws IOException {
+        CsvCatalogReader reader = reader("name,type,available,leadTime,expiryDate,seasonStartDate,seasonEndDate\n"
+                + "\"Cable, USB-C \"\"2m\"\"\",NORMAL,5,3,,,\n");
+
+        assertEquals("Cable, USB-C \"2m\"", reader.next().name());
+    }
+
+    @Test
+    @DisplayName("Should report the line of an invalid row")
+    void shouldReportLineOfInvalidRow() throws IOException {
+        CsvCatalogReader reader = reader("""
+                name,type,available,leadTime,expiryDate,seasonStartDate,seasonEndDate
+                USB Cable,NORMAL,5,3,,,
+
+                Watermelon,SEASONAL,many,3,,,
+                """);
+        reader.next();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reader::next);
+        assertTrue(exception.getMessage().startsWith("Invalid catalog row at line 4"), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject a row without available stock or with a negative one")
+    void shouldRejectMissingOrNegativeAvailable() throws IOException {
+        CsvCatalogReader reader = reader("""
+                name,type,available,leadTime,expiryDate,seasonStartDate,seasonEndDate
+                USB Cable,NORMAL, ,3,,,
+                Watermelon,SEASONAL,-1,3,,,
+                """);
+
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, reader::next);
+        IllegalArgumentException negative = assertThrows(IllegalArgumentException.class, reader::next);
+
+        assertEquals("Invalid catalog row at line 2: available is required", missing.getMessage());
+        assertEquals("Invalid catalog row at line 3: available must not be negative: -1", negative.getMessage());
+    }
+
+    private static CsvCatalogReader reader(String csv) {
+        return new CsvCatalogReader(new BufferedReader(new StringReader(csv)), TYPES);
+    }
+}
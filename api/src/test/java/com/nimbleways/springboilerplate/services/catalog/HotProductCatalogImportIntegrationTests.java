@@ -0,0 +1,72 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.dto.catalog.CatalogImportResult;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.HotStockCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "stock.cache.enabled=true",
+        "stock.cache.hot-product-ids=" + HotProductCatalogImportIntegrationTests.HOT_PRODUCT_ID,
+        "stock.cache.flush-interval=1h"
+})
+@DisplayName("Catalog import of hot products Integration Tests")
+class HotProductCatalogImportIntegrationTests {
+
+    static final long HOT_PRODUCT_ID = 900_001L;
+
+    private static final String HEADER = String.join(",", CatalogRow.FIELDS);
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private HotStockCache hotStockCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should set the in-memory stock of a hot product and write the level behind without losing earlier changes")
+    void shouldResetHotStockToImportedLevel() {
+        jdbcTemplate.update("insert into products (id, name, type, available, lead_time, version)"
+                + " values (?, 'hot-catalog', 'NORMAL', 10, 5, 0)", HOT_PRODUCT_ID);
+        assertTrue(hotStockCache.tryTake(HOT_PRODUCT_ID, 3));
+
+        CatalogImportResult result = importCsv(HEADER + "\nhot-catalog,NORMAL,50,2,,,\ncold-catalog,NORMAL,4,1,,,\n");
+
+        Product hot = productRepository.findById(HOT_PRODUCT_ID).orElseThrow();
+        assertEquals(1, result.updated());
+        assertEquals(1, result.inserted());
+        assertEquals(50, hotStockCache.available(HOT_PRODUCT_ID));
+        // The table lags behind until the next flush, which must not apply the 3 units taken before on top
+        assertEquals(10, hot.getAvailable());
+        assertEquals(2, hot.getLeadTime());
+
+        hotStockCache.flush();
+
+        assertEquals(50, productRepository.findAvailableById(HOT_PRODUCT_ID).orElseThrow());
+        assertEquals(4, productRepository.findFirstByName("cold-catalog").orElseThrow().getAvailable());
+    }
+
+    private CatalogImportResult importCsv(String csv) {
+        return productCatalogService.importCatalog(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), CatalogFormat.CSV);
+    }
+}
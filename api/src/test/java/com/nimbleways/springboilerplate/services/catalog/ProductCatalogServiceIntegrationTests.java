@@ -0,0 +1,116 @@
+package com.nimbleways.springboilerplate.services.catalog;
+
+import com.nimbleways.springboilerplate.dto.catalog.CatalogExportResult;
+import com.nimbleways.springboilerplate.dto.catalog.CatalogImportResult;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DisplayName("ProductCatalogService Integration Tests")
+class ProductCatalogServiceIntegrationTests {
+
+    private static final int ROW_COUNT = 2_500;
+    private static final String HEADER = String.join(",", CatalogRow.FIELDS);
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @DisplayName("Should insert new products from a CSV file in chunks and update them on the next import")
+    void shouldInsertThenUpdateFromCsv(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, csv("csv-", 10));
+
+        CatalogImportResult inserted = importFile(file, CatalogFormat.CSV);
+
+        Files.writeString(file, csv("csv-", 20));
+        CatalogImportResult updated = importFile(file, CatalogFormat.CSV);
+
+        assertEquals(ROW_COUNT, inserted.inserted());
+        assertEquals(0, updated.inserted());
+        assertEquals(ROW_COUNT, updated.updated());
+        assertTrue(updated.rowsPerSecond() > 0);
+        Product product = productRepository.findFirstByName("csv-42").orElseThrow();
+        assertEquals(20, product.getAvailable());
+        assertEquals(ProductType.SEASONAL, product.getType());
+        assertEquals(1L, product.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON and export the same rows back")
+    void shouldRoundTripNdjson() {
+        String ndjson = IntStream.range(0, 3)
+                .mapToObj(i -> "{\"name\":\"ndjson-" + i + "\",\"type\":\"EXPIRABLE\",\"available\":" + i
+                        + ",\"leadTime\":4,\"expiryDate\":\"2030-01-0" + (i + 1)
+                        + "\",\"seasonStartDate\":null,\"seasonEndDate\":null}")
+                .collect(Collectors.joining("\n", "", "\n"));
+
+        CatalogImportResult imported = productCatalogService.importCatalog(
+                Channels.newChannel(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))), CatalogFormat.NDJSON);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CatalogExportResult exported = productCatalogService.exportCatalog(Channels.newChannel(output), CatalogFormat.NDJSON);
+
+        List<String> exportedRows = output.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.contains("\"ndjson-"))
+                .toList();
+        assertEquals(3, imported.inserted());
+        assertEquals(ndjson.lines().toList(), exportedRows);
+        assertTrue(exported.rows() >= 3);
+    }
+
+    @Test
+    @DisplayName("Should export CSV that imports back unchanged")
+    void shouldExportCsvThatImportsBack() {
+        productRepository.save(new Product(null, 7, 12, ProductType.SEASONAL, "export, \"quoted\"",
+                null, LocalDate.of(2030, 6, 1), LocalDate.of(2030, 9, 1), null));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        productCatalogService.exportCatalog(Channels.newChannel(output), CatalogFormat.CSV);
+        String csv = output.toString(StandardCharsets.UTF_8);
+
+        assertTrue(csv.startsWith(HEADER + "\n"));
+        assertTrue(csv.contains("\"export, \"\"quoted\"\"\",SEASONAL,12,7,,2030-06-01,2030-09-01\n"), csv);
+
+        CatalogImportResult reimported = productCatalogService.importCatalog(
+                Channels.newChannel(new ByteArrayInputStream(output.toByteArray())), CatalogFormat.CSV);
+        assertEquals(0, reimported.inserted());
+    }
+
+    private CatalogImportResult importFile(Path file, CatalogFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return productCatalogService.importCatalog(channel, format);
+        }
+    }
+
+    private static String csv(String prefix, int available) {
+        LocalDate today = LocalDate.now();
+        return IntStream.range(0, ROW_COUNT)
+                .mapToObj(i -> prefix + i + ",SEASONAL," + available + ",5,," + today.minusDays(10) + "," + today.plusDays(10))
+                .collect(Collectors.joining("\n", HEADER + "\n", "\n"));
+    }
+}
@@ -0,0 +1,193 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.StockCacheProperties;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("HotStockCache Tests")
+class HotStockCacheTest {
+
+    private static final Long HOT_PRODUCT_ID = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockCacheProperties properties;
+
+    private HotStockCache hotStockCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StockCacheProperties();
+        properties.setEnabled(true);
+        properties.setHotProductIds(Set.of(HOT_PRODUCT_ID));
+        hotStockCache = new HotStockCache(productRepository, new TransactionTemplate(transactionManager), properties);
+    }
+
+    @Test
+    @DisplayName("Should only handle configured hot products while enabled")
+    void shouldOnlyHandleHotProductsWhileEnabled() {
+        assertTrue(hotStockCache.handles(HOT_PRODUCT_ID));
+        assertFalse(hotStockCache.handles(2L));
+
+        properties.setEnabled(false);
+
+        assertFalse(hotStockCache.handles(HOT_PRODUCT_ID));
+    }
+
+    @Test
+    @DisplayName("Should never hand out more units than available under concurrent decrements")
+    void shouldNeverOversellUnderConcurrentDecrements() throws InterruptedException {
+        givenStock(500);
+        AtomicInteger taken = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 800; i++) {
+            executor.execute(() -> {
+                if (hotStockCache.tryDecrement(HOT_PRODUCT_ID)) {
+                    taken.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(500, TimeUnit.MILLISECONDS));
+
+        assertEquals(500, taken.get());
+        assertEquals(0, hotStockCache.available(HOT_PRODUCT_ID));
+        verify(productRepository, times(1)).findById(HOT_PRODUCT_ID);
+    }
+
+    @Test
+    @DisplayName("Should write the accumulated change behind in a single statement")
+    void shouldWriteAccumulatedChangeBehind() {
+        givenStock(10);
+
+        hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+        hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+        hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+        hotStockCache.flush();
+        hotStockCache.flush();
+
+        verify(productRepository, times(1)).adjustAvailable(HOT_PRODUCT_ID, -3);
+        verify(productRepository, times(1)).adjustAvailable(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reset the stock to a new level and write the difference behind")
+    void shouldWriteDifferenceWithResetLevelBehind() {
+        givenStock(10);
+
+        hotStockCache.tryTake(HOT_PRODUCT_ID, 3);
+        hotStockCache.reset(HOT_PRODUCT_ID, 50);
+        hotStockCache.flush();
+
+        assertEquals(50, hotStockCache.available(HOT_PRODUCT_ID));
+        verify(productRepository, times(1)).adjustAvailable(HOT_PRODUCT_ID, 40);
+    }
+
+    @Test
+    @DisplayName("Should put units back when the transaction rolls back")
+    void shouldRestoreUnitsOnRollback() {
+        givenStock(10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+            hotStockCache.markUnavailable(HOT_PRODUCT_ID);
+            assertEquals(0, hotStockCache.available(HOT_PRODUCT_ID));
+
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        hotStockCache.flush();
+
+        assertEquals(10, hotStockCache.available(HOT_PRODUCT_ID));
+        verify(productRepository, never()).adjustAvailable(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should only give units back once the transaction commits")
+    void shouldPutUnitsBackOnCommit() {
+        givenStock(10);
+        hotStockCache.tryTake(HOT_PRODUCT_ID, 4);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hotStockCache.putBack(HOT_PRODUCT_ID, 4);
+            assertEquals(6, hotStockCache.available(HOT_PRODUCT_ID));
+
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        hotStockCache.flush();
+
+        assertEquals(10, hotStockCache.available(HOT_PRODUCT_ID));
+        verify(productRepository, never()).adjustAvailable(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should keep pending changes when a flush fails")
+    void shouldKeepPendingChangesWhenFlushFails() {
+        givenStock(10);
+        when(productRepository.adjustAvailable(HOT_PRODUCT_ID, -1))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+
+        hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+        hotStockCache.flush();
+        hotStockCache.flush();
+
+        verify(productRepository, times(2)).adjustAvailable(HOT_PRODUCT_ID, -1);
+    }
+
+    @Test
+    @DisplayName("Should flush pending changes on shutdown in durable mode")
+    void shouldFlushOnShutdown() throws InterruptedException {
+        givenStock(10);
+        hotStockCache.tryDecrement(HOT_PRODUCT_ID);
+
+        hotStockCache.stop();
+
+        verify(productRepository, times(1)).adjustAvailable(HOT_PRODUCT_ID, -1);
+    }
+
+    private void givenStock(int available) {
+        Product product = new Product();
+        product.setId(HOT_PRODUCT_ID);
+        product.setAvailable(available);
+        when(productRepository.findById(HOT_PRODUCT_ID)).thenReturn(Optional.of(product));
+    }
+}
@@ -0,0 +1,104 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.contollers.OrderController;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DisplayName("Idempotent order processing Integration Tests")
+class IdempotentOrderProcessingIntegrationTests {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProcessedOrderRepository processedOrderRepository;
+
+    @Test
+    @DisplayName("Should take the stock of an order only once when its processing is requested again")
+    void shouldTakeStockOnceForRepeatedRequests() {
+        Product product = productRepository.save(new Product(null, 5, 10, ProductType.NORMAL, "Retried item", null, null, null, null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+
+        ProcessOrderResponse first = orderController.processOrder(orderId);
+        ProcessOrderResponse second = orderController.processOrder(orderId);
+
+        assertEquals(first, second);
+        assertEquals(9, availableOf(product));
+        assertTrue(processedOrderRepository.existsById(orderId));
+    }
+
+    @Test
+    @DisplayName("Should take the stock of an order only once when duplicates arrive concurrently")
+    void shouldTakeStockOnceForConcurrentDuplicates() throws Exception {
+        Product product = productRepository.save(new Product(null, 5, 10, ProductType.NORMAL, "Duplicated item", null, null, null, null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<ProcessOrderResponse>> requests = IntStream.range(0, THREADS)
+                    .<Callable<ProcessOrderResponse>>mapToObj(i -> () -> orderController.processOrder(orderId))
+                    .toList();
+            for (Future<ProcessOrderResponse> response : executor.invokeAll(requests)) {
+                assertEquals(orderId, response.get().id());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(9, availableOf(product));
+    }
+
+    @Test
+    @DisplayName("Should take the stock of an order only once when it is sent again in a batch")
+    void shouldTakeStockOnceForRepeatedBatches() {
+        Product product = productRepository.save(new Product(null, 5, 10, ProductType.NORMAL, "Batched item", null, null, null, null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+
+        orderProcessingService.processOrders(List.of(orderId));
+        List<OrderProcessingResult> repeated = orderProcessingService.processOrders(List.of(orderId));
+        ProcessOrderResponse single = orderController.processOrder(orderId);
+
+        assertEquals(List.of(OrderProcessingResult.processed(orderId)), repeated);
+        assertEquals(orderId, single.id());
+        assertEquals(9, availableOf(product));
+        assertTrue(processedOrderRepository.existsById(orderId));
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getAvailable();
+    }
+}
@@ -0,0 +1,187 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
+import com.nimbleways.springboilerplate.entities.ProcessedOrder;
+import com.nimbleways.springboilerplate.repositories.ProcessedOrderRepository;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("IdempotentOrderProcessor Tests")
+class IdempotentOrderProcessorTest {
+
+    private static final Long ORDER_ID = 1L;
+    private static final Instant NOW = Instant.parse("2024-06-30T12:00:00Z");
+
+    @Mock
+    private ProcessedOrderRepository processedOrderRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private IdempotentOrderProcessor idempotentOrderProcessor;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        OrderProcessingProperties properties = new OrderProcessingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        idempotentOrderProcessor = new IdempotentOrderProcessor(processedOrderRepository,
+                new TransactionTemplate(transactionManager), new OptimisticLockRetry(properties, meterRegistry),
+                properties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated request from memory without processing the order again")
+    void shouldAnswerRepeatedRequestFromCache() {
+        ProcessOrderResponse first = idempotentOrderProcessor.processOnce(ORDER_ID, this::process);
+        ProcessOrderResponse second = idempotentOrderProcessor.processOnce(ORDER_ID, this::process);
+
+        assertEquals(first, second);
+        assertEquals(1, executions.get());
+        verify(processedOrderRepository, times(1)).existsById(ORDER_ID);
+        verify(processedOrderRepository, times(1)).insert(ORDER_ID, NOW);
+        assertEquals(1.0, duplicates("cache"));
+    }
+
+    @Test
+    @DisplayName("Should not process an order that is already recorded as processed")
+    void shouldSkipRecordedOrder() {
+        when(processedOrderRepository.existsById(ORDER_ID)).thenReturn(true);
+
+        ProcessOrderResponse response = idempotentOrderProcessor.processOnce(ORDER_ID, this::process);
+
+        assertEquals(new ProcessOrderResponse(ORDER_ID), response);
+        assertEquals(0, executions.get());
+        verify(processedOrderRepository, never()).insert(any(), any());
+        assertEquals(1.0, duplicates("record"));
+    }
+
+    @Test
+    @DisplayName("Should collapse concurrent requests for the same order into one execution")
+    void shouldCollapseConcurrentDuplicates() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ProcessOrderResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotentOrderProcessor.processOnce(ORDER_ID, () -> {
+                    started.countDown();
+                    await(release);
+                    return process();
+                }));
+        assertEquals(true, started.await(500, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<ProcessOrderResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotentOrderProcessor.processOnce(ORDER_ID, this::process));
+        while (duplicates("in_flight") == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(first.join(), duplicate.join());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should process the order again after a failed attempt")
+    void shouldNotRememberFailures() {
+        assertThrows(IllegalStateException.class, () -> idempotentOrderProcessor.processOnce(ORDER_ID, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        idempotentOrderProcessor.processOnce(ORDER_ID, this::process);
+
+        assertEquals(1, executions.get());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    @DisplayName("Should treat an order recorded concurrently by another instance as processed")
+    void shouldTreatConcurrentRecordAsProcessed() {
+        when(processedOrderRepository.existsById(ORDER_ID)).thenReturn(false, true);
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(processedOrderRepository).insert(eq(ORDER_ID), any());
+
+        ProcessOrderResponse response = idempotentOrderProcessor.processOnce(ORDER_ID, this::process);
+
+        assertEquals(new ProcessOrderResponse(ORDER_ID), response);
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should process every request when idempotency is disabled")
+    void shouldProcessEveryRequestWhenDisabled() {
+        OrderProcessingProperties properties = new OrderProcessingProperties();
+        properties.getIdempotency().setEnabled(false);
+        IdempotentOrderProcessor disabled = new IdempotentOrderProcessor(processedOrderRepository,
+                new TransactionTemplate(transactionManager), new OptimisticLockRetry(properties, meterRegistry),
+                properties, meterRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        disabled.processOnce(ORDER_ID, this::process);
+        disabled.processOnce(ORDER_ID, this::process);
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(processedOrderRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should record the new orders of a batch and return those already recorded")
+    void shouldRecordBatch() {
+        when(processedOrderRepository.findAllById(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(new ProcessedOrder(2L, NOW.minusSeconds(60))));
+
+        Set<Long> alreadyProcessed = idempotentOrderProcessor.recordBatch(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(2L), alreadyProcessed);
+        verify(processedOrderRepository).insert(1L, NOW);
+        verify(processedOrderRepository).insert(3L, NOW);
+        verify(processedOrderRepository, never()).insert(eq(2L), any());
+        assertEquals(1.0, duplicates("record"));
+    }
+
+    private ProcessOrderResponse process() {
+        executions.incrementAndGet();
+        return new ProcessOrderResponse(ORDER_ID);
+    }
+
+    private double duplicates(String source) {
+        return meterRegistry.counter("orders.idempotency.duplicates", "source", source).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(500, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@UnitTest
+@DisplayName("OrderExecutor Tests")
+class OrderExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OrderExecutor orderExecutor;
+
+    @BeforeEach
+    void setUp() {
+        OrderProcessingProperties properties = new OrderProcessingProperties();
+        properties.getExecution().setPoolSize(1);
+        properties.getExecution().setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        orderExecutor = new OrderExecutor(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderExecutor.stop();
+    }
+
+    @Test
+    @DisplayName("Should run submitted work off the calling thread")
+    void shouldRunSubmittedWork() {
+        CompletableFuture<String> result = orderExecutor.submit(() -> Thread.currentThread().getName());
+
+        assertEquals("order-processing-1", result.join());
+    }
+
+    @Test
+    @DisplayName("Should reject work once the threads and the queue are busy")
+    void shouldRejectWorkWhenSaturated() {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = orderExecutor.submit(() -> await(release));
+        CompletableFuture<Boolean> queued = orderExecutor.submit(() -> await(release));
+
+        assertThrows(RejectedExecutionException.class, () -> orderExecutor.submit(() -> true));
+        assertEquals(1.0, meterRegistry.counter("orders.execution.rejected").count());
+
+        release.countDown();
+        assertEquals(true, running.join());
+        assertEquals(true, queued.join());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
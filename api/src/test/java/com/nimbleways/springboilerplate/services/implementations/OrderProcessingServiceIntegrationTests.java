@@ -0,0 +1,193 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.utils.StatementRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Import(StatementRecorder.class)
+@DisplayName("OrderProcessingService Integration Tests")
+class OrderProcessingServiceIntegrationTests {
+
+    private static final int ITEM_COUNT = 200;
+    private static final int BATCH_SIZE = 50;
+    private static final String CONDITIONAL_DECREMENT = "update products set available = available -";
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should take the stock of all items in one batch of conditional statements and never write it back")
+    void shouldTakeStockWithConditionalStatements() {
+        Long orderId = createOrder(i -> new Product(null, 5, 10, ProductType.NORMAL, "Normal item " + i, null, null, null, null));
+
+        processOrder(orderId);
+
+        // 1 fetch-join select + 1 order lines select + 1 reservations select, the decrements go out as one JDBC batch
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, statementRecorder.count(CONDITIONAL_DECREMENT));
+        assertTrue(itemsOf(orderId).stream().allMatch(product -> product.getAvailable() == 9));
+    }
+
+    @Test
+    @DisplayName("Should write all changed products of a large order in batched statements")
+    void shouldBatchProductUpdatesOfLargeOrder() {
+        LocalDate today = LocalDate.now();
+        Long orderId = createOrder(i -> new Product(null, null, 0, ProductType.SEASONAL, "Seasonal item " + i,
+                null, today.minusDays(10), today.plusDays(10), null));
+
+        processOrder(orderId);
+
+        // 1 fetch-join select + 1 order lines select + 1 reservations select + one prepared statement per JDBC batch
+        // of updates
+        long expectedStatements = 3 + (long) Math.ceil((double) ITEM_COUNT / BATCH_SIZE);
+        assertEquals(ITEM_COUNT, statistics.getEntityUpdateCount());
+        assertTrue(statistics.getPrepareStatementCount() <= expectedStatements,
+                "Expected at most " + expectedStatements + " statements but got " + statistics.getPrepareStatementCount());
+        assertTrue(itemsOf(orderId).stream().allMatch(product -> product.getLeadTime() == 0));
+    }
+
+    @Test
+    @DisplayName("Should re-read and re-apply an order whose product was changed concurrently")
+    void shouldRetryOrderWhoseProductWasChangedConcurrently() {
+        LocalDate today = LocalDate.now();
+        Product product = productRepository.save(new Product(null, null, 0, ProductType.SEASONAL, "Contended seasonal",
+                null, today.minusDays(10), today.plusDays(10), null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+        Order staleOrder = transactionTemplate.execute(status -> orderRepository.findWithItemsById(orderId).orElseThrow());
+
+        transactionTemplate.executeWithoutResult(status ->
+                productRepository.findById(product.getId()).orElseThrow().setName("Renamed seasonal"));
+        double retriesBefore = meterRegistry.counter("orders.processing.optimistic_lock.retries").count();
+
+        orderProcessingService.processOrder(staleOrder);
+
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, updated.getLeadTime());
+        assertEquals("Renamed seasonal", updated.getName());
+        assertEquals(retriesBefore + 1, meterRegistry.counter("orders.processing.optimistic_lock.retries").count());
+    }
+
+    @Test
+    @DisplayName("Should take the whole quantity of an order line in a single statement")
+    void shouldTakeWholeQuantityOfOrderLine() {
+        Product product = productRepository.save(new Product(null, 5, 100, ProductType.NORMAL, "Bulk item", null, null, null, null));
+        Long orderId = createOrderWithLine(product, 40);
+
+        processOrder(orderId);
+
+        // 1 fetch-join select + 1 order lines select + 1 reservations select, then the conditional decrement
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1, statementRecorder.count(CONDITIONAL_DECREMENT));
+        assertEquals(60, productRepository.findById(product.getId()).orElseThrow().getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should ship what is left of an order line and delay the rest by the lead time")
+    void shouldPartiallyFulfilOrderLine() {
+        Product product = productRepository.save(new Product(null, 5, 25, ProductType.NORMAL, "Scarce item", null, null, null, null));
+        Long orderId = createOrderWithLine(product, 40);
+        double partialBefore = itemOutcomeCount("PARTIALLY_FULFILLED");
+        double delayedBefore = itemOutcomeCount("DELAYED");
+        double delayBefore = meterRegistry.counter("notifications.requested", "type", "DELAY").count();
+
+        processOrder(orderId);
+
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getAvailable());
+        assertEquals(partialBefore + 1, itemOutcomeCount("PARTIALLY_FULFILLED"));
+        // The planned run that sent the line to be processed directly is not counted
+        assertEquals(delayedBefore, itemOutcomeCount("DELAYED"));
+        assertEquals(delayBefore + 1, meterRegistry.counter("notifications.requested", "type", "DELAY").count());
+    }
+
+    private double itemOutcomeCount(String outcome) {
+        return meterRegistry.get("orders.processing.item").tags("type", "NORMAL", "outcome", outcome).timer().count();
+    }
+
+    private Long createOrderWithLine(Product product, int quantity) {
+        return transactionTemplate.execute(status -> {
+            Order order = orderRepository.save(new Order(null, new HashSet<>()));
+            orderLineRepository.save(new OrderLine(null, order, product, quantity));
+            return order.getId();
+        });
+    }
+
+    private void processOrder(Long orderId) {
+        statistics.clear();
+        statementRecorder.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+            orderProcessingService.processOrder(order);
+        });
+    }
+
+    private Set<Product> itemsOf(Long orderId) {
+        return transactionTemplate.execute(status -> orderRepository.findWithItemsById(orderId).orElseThrow().getItems());
+    }
+
+    private Long createOrder(IntFunction<Product> productFactory) {
+        return transactionTemplate.execute(status -> {
+            Set<Product> products = IntStream.range(0, ITEM_COUNT)
+                    .mapToObj(productFactory)
+                    .map(productRepository::save)
+                    .collect(Collectors.toCollection(HashSet::new));
+            return orderRepository.save(new Order(null, products)).getId();
+        });
+    }
+}
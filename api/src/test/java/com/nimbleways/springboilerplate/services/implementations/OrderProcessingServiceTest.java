@@ -1,9 +1,18 @@
 package com.nimbleways.springboilerplate.services.implementations;
 
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingStatus;
+import com.nimbleways.springboilerplate.dto.product.ProcessOrderResponse;
 import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
 import com.nimbleways.springboilerplate.entities.Product;
 import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
 import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.strategies.OrderProcessingContext;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
 import com.nimbleways.springboilerplate.strategies.ProductAvailabilityStrategy;
 import com.nimbleways.springboilerplate.strategies.ProductStrategyFactory;
 import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
@@ -11,14 +20,35 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,25 +56,77 @@ import static org.mockito.Mockito.*;
 @DisplayName("OrderProcessingService Tests")
 class OrderProcessingServiceTest {
 
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
     @Mock
     private ProductStrategyFactory productStrategyFactory;
 
     @Mock
     private ProductAvailabilityStrategy mockStrategy;
 
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderLineRepository orderLineRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DirectOrderProcessingContext directContext;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private IdempotentOrderProcessor idempotentOrderProcessor;
+
+    @Mock
+    private ReservationService reservationService;
+
+    private ParallelItemProcessor parallelItemProcessor;
+
+    private OrderProcessingProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private OrderProcessingService orderProcessingService;
 
     @BeforeEach
     void setUp() {
-        orderProcessingService = new OrderProcessingService(productStrategyFactory);
+        properties = new OrderProcessingProperties();
+        properties.getRetry().setInitialBackoff(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        parallelItemProcessor = new ParallelItemProcessor(properties, stockService, directContext,
+                new OrderProcessingMetrics(meterRegistry));
+        orderProcessingService = new OrderProcessingService(
+                productStrategyFactory,
+                orderRepository,
+                orderLineRepository,
+                new TransactionTemplate(transactionManager),
+                entityManager,
+                new OptimisticLockRetry(properties, meterRegistry),
+                properties,
+                new OrderProcessingMetrics(meterRegistry),
+                parallelItemProcessor,
+                new ProductLockManager(properties, meterRegistry),
+                idempotentOrderProcessor,
+                reservationService,
+                Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC)
+        );
+        lenient().when(mockStrategy.processOrder(any(Product.class), anyInt(), any(), any())).thenReturn(ProcessingOutcome.DECREMENTED);
     }
 
     @Test
     @DisplayName("Should process all products in an order")
     void shouldProcessAllProductsInOrder() {
-        Product product1 = createProduct("Product 1", "NORMAL");
-        Product product2 = createProduct("Product 2", "SEASONAL");
-        Product product3 = createProduct("Product 3", "EXPIRABLE");
+        Product product1 = createProduct("Product 1", ProductType.NORMAL);
+        Product product2 = createProduct("Product 2", ProductType.SEASONAL);
+        Product product3 = createProduct("Product 3", ProductType.EXPIRABLE);
 
         Set<Product> products = Set.of(product1, product2, product3);
         Order order = createOrder(1L, products);
@@ -54,7 +136,7 @@ class OrderProcessingServiceTest {
 
         orderProcessingService.processOrder(order);
 
-        verify(mockStrategy, times(3)).processOrder(any(Product.class));
+        verify(mockStrategy, times(3)).processOrder(any(Product.class), anyInt(), any(), any());
         verify(productStrategyFactory, times(3)).getStrategy(any(ProductType.class));
     }
 
@@ -92,11 +174,14 @@ class OrderProcessingServiceTest {
     }
 
     @Test
-    @DisplayName("Should throw exception for invalid product type")
-    void shouldThrowExceptionForInvalidProductType() {
-        Product product = createProduct("Invalid Product", "INVALID_TYPE");
+    @DisplayName("Should throw exception for product type without strategy")
+    void shouldThrowExceptionForProductTypeWithoutStrategy() {
+        Product product = createProduct("Unsupported Product", ProductType.NORMAL);
         Order order = createOrder(1L, Set.of(product));
 
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL))
+                .thenThrow(new IllegalArgumentException("Unknown product type: NORMAL"));
+
         assertThrows(IllegalArgumentException.class,
                 () -> orderProcessingService.processOrder(order));
     }
@@ -117,9 +202,9 @@ class OrderProcessingServiceTest {
     @Test
     @DisplayName("Should handle order with mixed product types")
     void shouldHandleOrderWithMixedProductTypes() {
-        Product normalProduct = createProduct("USB Cable", "NORMAL");
-        Product seasonalProduct = createProduct("Watermelon", "SEASONAL");
-        Product expirableProduct = createProduct("Milk", "EXPIRABLE");
+        Product normalProduct = createProduct("USB Cable", ProductType.NORMAL);
+        Product seasonalProduct = createProduct("Watermelon", ProductType.SEASONAL);
+        Product expirableProduct = createProduct("Milk", ProductType.EXPIRABLE);
 
         Order order = createOrder(1L, Set.of(normalProduct, seasonalProduct, expirableProduct));
 
@@ -129,30 +214,296 @@ class OrderProcessingServiceTest {
 
         orderProcessingService.processOrder(order);
 
-        verify(mockStrategy, times(3)).processOrder(any(Product.class));
+        verify(mockStrategy, times(3)).processOrder(any(Product.class), anyInt(), any(), any());
         verify(productStrategyFactory).getStrategy(ProductType.NORMAL);
         verify(productStrategyFactory).getStrategy(ProductType.SEASONAL);
         verify(productStrategyFactory).getStrategy(ProductType.EXPIRABLE);
     }
 
     @Test
-    @DisplayName("Should handle case-insensitive product types")
-    void shouldHandleCaseInsensitiveProductTypes() {
-        Product product1 = createProduct("Product 1", "normal");
-        Product product2 = createProduct("Product 2", "SEASONAL");
-        Product product3 = createProduct("Product 3", "ExPiRaBlE");
+    @DisplayName("Should process the order lines with their quantities when the order has any")
+    void shouldProcessOrderLinesWithTheirQuantities() {
+        Product product = createProduct("USB Cable", ProductType.NORMAL);
+        Order order = createOrder(1L, Set.of(product));
+
+        when(orderLineRepository.findAllWithProductByOrderIdIn(List.of(1L)))
+                .thenReturn(List.of(new OrderLine(10L, order, product, 40)));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
 
-        Order order = createOrder(1L, Set.of(product1, product2, product3));
+        orderProcessingService.processOrder(order);
 
-        when(productStrategyFactory.getStrategy(any(ProductType.class)))
-                .thenReturn(mockStrategy);
+        verify(mockStrategy, times(1)).processOrder(eq(product), eq(40), eq(TODAY), any());
+    }
+
+    @Test
+    @DisplayName("Should read an order without lines as one unit of each item")
+    void shouldReadOrderWithoutLinesAsSingleUnits() {
+        Product product = createProduct("USB Cable", ProductType.NORMAL);
+        Order order = createOrder(1L, Set.of(product));
+
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+
+        orderProcessingService.processOrder(order);
+
+        verify(mockStrategy, times(1)).processOrder(eq(product), eq(1), eq(TODAY), any());
+    }
+
+    @Test
+    @DisplayName("Should take the stock of all lines in one batch and process the refused lines again directly")
+    void shouldTakeStockOfAllLinesInOneBatch() {
+        Product cable = createProduct("USB Cable", ProductType.NORMAL);
+        Product mouse = createProduct("Mouse", ProductType.NORMAL);
+        Order order = createOrder(1L, Set.of(cable, mouse));
+        OrderLine cables = new OrderLine(10L, order, cable, 2);
+        OrderLine mice = new OrderLine(11L, order, mouse, 3);
+
+        when(orderLineRepository.findAllWithProductByOrderIdIn(List.of(1L))).thenReturn(List.of(cables, mice));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+        when(mockStrategy.processOrder(any(Product.class), anyInt(), any(), any())).thenAnswer(invocation -> {
+            OrderProcessingContext context = invocation.getArgument(3);
+            context.take(invocation.getArgument(0), invocation.getArgument(1));
+            return ProcessingOutcome.DECREMENTED;
+        });
+        when(stockService.tryTakeAll(any())).thenReturn(List.of(mice));
+
+        orderProcessingService.processOrder(order);
+
+        verify(stockService, times(1)).tryTakeAll(List.of(cables, mice));
+        verify(directContext, times(1)).take(mouse, 3);
+        verify(directContext, never()).take(eq(cable), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should time a line processed again once, under the outcome that was applied")
+    void shouldRecordOnlyTheAppliedOutcomeOfRefusedLine() {
+        Product cable = createProduct("USB Cable", ProductType.NORMAL);
+        Order order = createOrder(1L, Set.of(cable));
+        OrderLine cables = new OrderLine(10L, order, cable, 3);
+
+        when(orderLineRepository.findAllWithProductByOrderIdIn(List.of(1L))).thenReturn(List.of(cables));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+        when(mockStrategy.processOrder(any(Product.class), anyInt(), any(), any())).thenAnswer(invocation -> {
+            OrderProcessingContext context = invocation.getArgument(3);
+            int taken = context.take(invocation.getArgument(0), invocation.getArgument(1));
+            return taken > 0 ? ProcessingOutcome.DECREMENTED : ProcessingOutcome.DELAYED;
+        });
+        when(stockService.tryTakeAll(any())).thenReturn(List.of(cables));
+
+        orderProcessingService.processOrder(order);
+
+        assertEquals(0, meterRegistry.get("orders.processing.item")
+                .tags("type", "NORMAL", "outcome", "DECREMENTED").timer().count());
+        assertEquals(1, meterRegistry.get("orders.processing.item")
+                .tags("type", "NORMAL", "outcome", "DELAYED").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should decide every item of an order on the same day, even when the clock moves on")
+    void shouldSnapshotTheDayOncePerOrder() {
+        orderProcessingService = new OrderProcessingService(productStrategyFactory, orderRepository, orderLineRepository,
+                new TransactionTemplate(transactionManager), entityManager, new OptimisticLockRetry(properties, meterRegistry),
+                properties, new OrderProcessingMetrics(meterRegistry), parallelItemProcessor,
+                new ProductLockManager(properties, meterRegistry), idempotentOrderProcessor, reservationService,
+                new DayPerReadClock(TODAY));
+        Order order = createOrder(1L, Set.of(
+                createProduct("Milk", ProductType.EXPIRABLE),
+                createProduct("Watermelon", ProductType.SEASONAL),
+                createProduct("USB Cable", ProductType.NORMAL)));
+        when(productStrategyFactory.getStrategy(any())).thenReturn(mockStrategy);
+
+        orderProcessingService.processOrder(order);
+
+        ArgumentCaptor<LocalDate> days = ArgumentCaptor.forClass(LocalDate.class);
+        verify(mockStrategy, times(3)).processOrder(any(Product.class), anyInt(), days.capture(), any());
+        assertEquals(List.of(TODAY, TODAY, TODAY), days.getAllValues());
+    }
+
+    @Test
+    @DisplayName("Should record item timings by product type and outcome, and the order size")
+    void shouldRecordProcessingMetrics() {
+        Product normal = createProduct("Product 1", ProductType.NORMAL);
+        Product seasonal = createProduct("Product 2", ProductType.SEASONAL);
+        Order order = createOrder(1L, Set.of(normal, seasonal));
+
+        when(productStrategyFactory.getStrategy(any(ProductType.class))).thenReturn(mockStrategy);
+        when(mockStrategy.processOrder(eq(seasonal), anyInt(), any(), any())).thenReturn(ProcessingOutcome.OUT_OF_SEASON);
+
+        orderProcessingService.processOrder(order);
+
+        assertEquals(1, meterRegistry.get("orders.processing.item")
+                .tags("type", "NORMAL", "outcome", "DECREMENTED").timer().count());
+        assertEquals(1, meterRegistry.get("orders.processing.item")
+                .tags("type", "SEASONAL", "outcome", "OUT_OF_SEASON").timer().count());
+        assertEquals(1, meterRegistry.get("orders.processing.order").tag("outcome", "processed").timer().count());
+        assertEquals(2.0, meterRegistry.get("orders.processing.order.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should re-read the order and retry after an optimistic lock conflict")
+    void shouldRetryAfterOptimisticLockConflict() {
+        Order order = createOrder(1L, Set.of(createProduct("Contended", ProductType.NORMAL)));
+        Order reloaded = createOrder(1L, Set.of(createProduct("Contended", ProductType.NORMAL)));
+
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(reloaded));
+        doThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L))
+                .doReturn(ProcessingOutcome.DECREMENTED)
+                .when(mockStrategy).processOrder(any(Product.class), anyInt(), any(), any());
 
         orderProcessingService.processOrder(order);
 
-        verify(mockStrategy, times(3)).processOrder(any(Product.class));
+        verify(mockStrategy, times(2)).processOrder(any(Product.class), anyInt(), any(), any());
+        verify(orderRepository, times(1)).findWithItemsById(1L);
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(1.0, meterRegistry.counter("orders.processing.optimistic_lock.retries").count());
+    }
+
+    @Test
+    @DisplayName("Should give up after the configured number of attempts")
+    void shouldGiveUpAfterConfiguredAttempts() {
+        properties.getRetry().setMaxAttempts(2);
+        Order order = createOrder(1L, Set.of(createProduct("Contended", ProductType.NORMAL)));
+
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        doThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L))
+                .when(mockStrategy).processOrder(any(Product.class), anyInt(), any(), any());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderProcessingService.processOrder(order));
+
+        verify(mockStrategy, times(2)).processOrder(any(Product.class), anyInt(), any(), any());
+        assertEquals(2.0, meterRegistry.counter("orders.processing.optimistic_lock.conflicts").count());
+        assertEquals(1.0, meterRegistry.counter("orders.processing.optimistic_lock.exhausted").count());
+    }
+
+    @Test
+    @DisplayName("Should not retry failures other than optimistic lock conflicts")
+    void shouldNotRetryOtherFailures() {
+        Order order = createOrder(1L, Set.of(createProduct("Broken", ProductType.NORMAL)));
+
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+        doThrow(new IllegalStateException("boom")).when(mockStrategy).processOrder(any(Product.class), anyInt(), any(), any());
+
+        assertThrows(IllegalStateException.class, () -> orderProcessingService.processOrder(order));
+
+        verify(mockStrategy, times(1)).processOrder(any(Product.class), anyInt(), any(), any());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should load and process an order by id through the idempotent processor")
+    void shouldProcessOrderByIdOnce() {
+        Order order = createOrder(1L, Set.of(createProduct("Product 1", ProductType.NORMAL)));
+        when(idempotentOrderProcessor.processOnce(eq(1L), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ProcessOrderResponse>>getArgument(1).get());
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+
+        ProcessOrderResponse response = orderProcessingService.processOrderById(1L);
+
+        assertEquals(new ProcessOrderResponse(1L), response);
+        verify(mockStrategy, times(1)).processOrder(any(Product.class), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer 404 for an order id that does not exist")
+    void shouldAnswerNotFoundForMissingOrderId() {
+        when(idempotentOrderProcessor.processOnce(eq(999L), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ProcessOrderResponse>>getArgument(1).get());
+        when(orderRepository.findWithItemsById(999L)).thenReturn(Optional.empty());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> orderProcessingService.processOrderById(999L));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertTrue(exception.getMessage().contains("Order not found with id: 999"));
+        verifyNoInteractions(productStrategyFactory);
+    }
+
+    @Test
+    @DisplayName("Should process orders in chunks with one transaction per chunk")
+    void shouldProcessOrdersInChunks() {
+        properties.getBatch().setChunkSize(2);
+        Order order1 = createOrder(1L, Set.of(createProduct("Product 1", ProductType.NORMAL)));
+        Order order2 = createOrder(2L, Set.of(createProduct("Product 2", ProductType.NORMAL)));
+        Order order3 = createOrder(3L, Set.of(createProduct("Product 3", ProductType.NORMAL)));
+
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L, 2L))).thenReturn(List.of(order2, order1));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(3L))).thenReturn(List.of(order3));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(
+                OrderProcessingResult.processed(1L),
+                OrderProcessingResult.processed(2L),
+                OrderProcessingResult.processed(3L)
+        ), results);
+        verify(mockStrategy, times(3)).processOrder(any(Product.class), anyInt(), any(), any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should report orders already processed as processed without processing them again")
+    void shouldSkipOrdersAlreadyProcessed() {
+        Order order1 = createOrder(1L, Set.of(createProduct("Product 1", ProductType.NORMAL)));
+        Order order2 = createOrder(2L, Set.of(createProduct("Product 2", ProductType.NORMAL)));
+
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L, 2L))).thenReturn(List.of(order1, order2));
+        when(idempotentOrderProcessor.recordBatch(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(List.of(1L, 2L));
+
+        assertEquals(List.of(OrderProcessingResult.processed(1L), OrderProcessingResult.processed(2L)), results);
+        verify(mockStrategy, times(1)).processOrder(any(Product.class), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report missing orders as not found")
+    void shouldReportMissingOrdersAsNotFound() {
+        Order order = createOrder(1L, new HashSet<>());
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L, 42L))).thenReturn(List.of(order));
+
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(List.of(1L, 42L, 1L));
+
+        assertEquals(2, results.size());
+        assertEquals(OrderProcessingStatus.PROCESSED, results.get(0).status());
+        assertEquals(OrderProcessingStatus.NOT_FOUND, results.get(1).status());
+    }
+
+    @Test
+    @DisplayName("Should isolate a failing order from the rest of its chunk")
+    void shouldIsolateFailingOrderFromRestOfChunk() {
+        Order goodOrder = createOrder(1L, Set.of(createProduct("Good", ProductType.NORMAL)));
+        Order badOrder = createOrder(2L, Set.of(createProduct("Bad", null)));
+
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L, 2L))).thenReturn(List.of(goodOrder, badOrder));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(goodOrder));
+        when(orderRepository.findAllWithItemsByIdIn(List.of(2L))).thenReturn(List.of(badOrder));
+        when(productStrategyFactory.getStrategy(ProductType.NORMAL)).thenReturn(mockStrategy);
+
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(List.of(1L, 2L));
+
+        assertEquals(OrderProcessingResult.processed(1L), results.get(0));
+        assertEquals(OrderProcessingStatus.FAILED, results.get(1).status());
+        assertTrue(results.get(1).reason().contains("Product type cannot be null"));
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should return no results for an empty batch")
+    void shouldReturnNoResultsForEmptyBatch() {
+        assertTrue(orderProcessingService.processOrders(List.of()).isEmpty());
+
+        verifyNoInteractions(orderRepository);
+        verifyNoInteractions(transactionManager);
     }
 
-    private Product createProduct(String name, String type) {
+    private Product createProduct(String name, ProductType type) {
         Product product = new Product();
         product.setName(name);
         product.setType(type);
@@ -166,4 +517,32 @@ class OrderProcessingServiceTest {
         order.setItems(items);
         return order;
     }
-}
\ No newline at end of file
+
+    /**
+     * A clock that moves on by a day every time it is read.
+     */
+    private static final class DayPerReadClock extends Clock {
+        private Instant next;
+
+        private DayPerReadClock(LocalDate first) {
+            this.next = first.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            Instant current = next;
+            next = next.plus(Duration.ofDays(1));
+            return current;
+        }
+    }
+}
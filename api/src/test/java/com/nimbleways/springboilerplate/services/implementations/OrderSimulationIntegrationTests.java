@@ -0,0 +1,208 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingStatus;
+import com.nimbleways.springboilerplate.dto.order.OrderSimulationResult;
+import com.nimbleways.springboilerplate.dto.order.SimulatedItem;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ReservationStatus;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.strategies.ProcessingOutcome;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@DisplayName("Order simulation Integration Tests")
+class OrderSimulationIntegrationTests {
+
+    private static final int SIMULATED_ORDERS = 100_000;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("Should carry the stock taken by one simulated order over to the next, without writing it")
+    void shouldConsumeSimulatedStockAcrossOrders() {
+        Product normal = saveProduct(new Product(null, 4, 3, ProductType.NORMAL, "Simulated normal", null, null, null, null));
+        Product expired = saveProduct(new Product(null, 0, 9, ProductType.EXPIRABLE, "Simulated expired",
+                LocalDate.now().minusDays(1), null, null, null));
+        Long first = saveOrder(normal, 2);
+        Long second = saveOrder(normal, 2);
+        Long third = saveOrder(normal, 1);
+        Long withExpired = orderRepository.save(new Order(null, Set.of(expired))).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long updatesBefore = statistics.getEntityUpdateCount();
+        int movementsBefore = movementCount();
+
+        List<OrderSimulationResult> results = orderProcessingService.simulateOrders(List.of(first, second, third, withExpired));
+
+        SimulatedItem decremented = assertItem(results.get(0), 2, ProcessingOutcome.DECREMENTED);
+        assertEquals(0, decremented.shortage());
+        assertNull(decremented.leadTime());
+        SimulatedItem partial = assertItem(results.get(1), 1, ProcessingOutcome.PARTIALLY_FULFILLED);
+        assertEquals(1, partial.shortage());
+        assertEquals(4, partial.leadTime());
+        SimulatedItem delayed = assertItem(results.get(2), 0, ProcessingOutcome.DELAYED);
+        assertEquals(1, delayed.shortage());
+        assertEquals(4, delayed.leadTime());
+        SimulatedItem expiredItem = assertItem(results.get(3), 0, ProcessingOutcome.EXPIRED);
+        assertEquals(1, expiredItem.shortage());
+        assertNull(expiredItem.leadTime());
+
+        assertEquals(3, availableOf(normal));
+        assertEquals(9, availableOf(expired));
+        assertEquals(updatesBefore, statistics.getEntityUpdateCount());
+        assertEquals(movementsBefore, movementCount());
+    }
+
+    @Test
+    @DisplayName("Should report the shortage of a partly fulfilled line without lead time when the rest is out of stock")
+    void shouldReportPartialShortageOutOfStock() {
+        Product normal = saveProduct(new Product(null, 0, 2, ProductType.NORMAL, "Simulated short", null, null, null, null));
+        Long orderId = saveOrder(normal, 5);
+
+        SimulatedItem partial = assertItem(orderProcessingService.simulateOrders(List.of(orderId)).get(0), 2,
+                ProcessingOutcome.PARTIALLY_FULFILLED);
+
+        assertEquals(3, partial.shortage());
+        assertNull(partial.leadTime());
+    }
+
+    @Test
+    @DisplayName("Should report unknown orders and orders of products without a type without simulating them")
+    void shouldReportOrdersThatCannotBeSimulated() {
+        Product untyped = saveProduct(new Product(null, 0, 5, null, "Simulated untyped", null, null, null, null));
+        Product normal = saveProduct(new Product(null, 0, 1, ProductType.NORMAL, "Simulated shared", null, null, null, null));
+        Long failing = orderRepository.save(new Order(null, Set.of(untyped, normal))).getId();
+        Long following = saveOrder(normal, 1);
+
+        List<OrderSimulationResult> results = orderProcessingService.simulateOrders(List.of(-1L, failing, following));
+
+        assertEquals(OrderProcessingStatus.NOT_FOUND, results.get(0).status());
+        assertEquals(OrderProcessingStatus.FAILED, results.get(1).status());
+        // The failed order took nothing, as processing would have rolled it back
+        assertItem(results.get(2), 1, ProcessingOutcome.DECREMENTED);
+    }
+
+    @Test
+    @DisplayName("Should skip processed orders and count reserved units like processing the same orders does")
+    void shouldSimulateLikeProcessing() {
+        Product product = saveProduct(new Product(null, 4, 10, ProductType.NORMAL, "Simulated parity", null, null, null, null));
+        Long processed = saveOrder(product, 3);
+        Long reserved = saveOrder(product, 4);
+        Long following = saveOrder(product, 5);
+        orderProcessingService.processOrders(List.of(processed));
+        // Two units beyond what the order asks for, given back when it is processed
+        StockReservation reservation = reservationService.reserve(reserved, product.getId(), 6, Duration.ofMinutes(5))
+                .orElseThrow();
+        List<Long> orderIds = List.of(processed, reserved, following);
+
+        List<OrderSimulationResult> simulated = orderProcessingService.simulateOrders(orderIds);
+
+        assertEquals(List.of(), simulated.get(0).items());
+        assertEquals(List.of(), simulated.get(1).items());
+        SimulatedItem partial = assertItem(simulated.get(2), 3, ProcessingOutcome.PARTIALLY_FULFILLED);
+        assertEquals(1, availableOf(product));
+        assertEquals(ReservationStatus.HELD, reservationService.find(reservation.getId()).orElseThrow().getStatus());
+
+        List<OrderProcessingResult> results = orderProcessingService.processOrders(orderIds);
+
+        assertEquals(results.stream().map(OrderProcessingResult::status).toList(),
+                simulated.stream().map(OrderSimulationResult::status).toList());
+        assertEquals(1 + 2 - partial.taken(), availableOf(product));
+        assertEquals(ReservationStatus.CONSUMED, reservationService.find(reservation.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should simulate a hundred thousand orders in one run")
+    void shouldSimulateManyOrders() {
+        Product product = saveProduct(new Product(null, 2, SIMULATED_ORDERS / 2, ProductType.NORMAL,
+                "Simulated bulk", null, null, null, null));
+        long lastOrderId = nextOrderId() - 1;
+        jdbcTemplate.batchUpdate("insert into orders (id) values (default)",
+                Collections.nCopies(SIMULATED_ORDERS, new Object[0]));
+        jdbcTemplate.update("insert into order_items (order_id, product_id) select id, ? from orders where id > ?",
+                product.getId(), lastOrderId);
+        List<Long> orderIds = LongStream.rangeClosed(lastOrderId + 1, lastOrderId + SIMULATED_ORDERS).boxed().toList();
+
+        List<OrderSimulationResult> results = orderProcessingService.simulateOrders(orderIds);
+
+        assertEquals(SIMULATED_ORDERS / 2, results.stream()
+                .filter(result -> result.items().get(0).outcome() == ProcessingOutcome.DECREMENTED)
+                .count());
+        assertEquals(ProcessingOutcome.DELAYED, results.get(SIMULATED_ORDERS - 1).items().get(0).outcome());
+        assertEquals(SIMULATED_ORDERS / 2, availableOf(product));
+    }
+
+    private static SimulatedItem assertItem(OrderSimulationResult result, int taken, ProcessingOutcome outcome) {
+        assertEquals(OrderProcessingStatus.PROCESSED, result.status());
+        assertEquals(1, result.items().size());
+        SimulatedItem item = result.items().get(0);
+        assertEquals(outcome, item.outcome());
+        assertEquals(taken, item.taken());
+        return item;
+    }
+
+    private Product saveProduct(Product product) {
+        return productRepository.save(product);
+    }
+
+    private Long saveOrder(Product product, int quantity) {
+        Order order = orderRepository.save(new Order(null, Set.of(product)));
+        orderLineRepository.save(new OrderLine(null, order, product, quantity));
+        return order.getId();
+    }
+
+    private long nextOrderId() {
+        return orderRepository.save(new Order(null, Set.of())).getId() + 1;
+    }
+
+    private int movementCount() {
+        return jdbcTemplate.queryForObject("select count(*) from stock_movements", Integer.class);
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findAvailableById(product.getId()).orElseThrow();
+    }
+}
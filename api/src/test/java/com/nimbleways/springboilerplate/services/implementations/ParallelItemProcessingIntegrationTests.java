@@ -0,0 +1,181 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import com.nimbleways.springboilerplate.services.notifications.NotificationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "orders.parallel.enabled=true",
+        "orders.parallel.parallelism=4",
+        "orders.parallel.threshold=" + Integer.MAX_VALUE
+})
+@DisplayName("Parallel item processing Integration Tests")
+class ParallelItemProcessingIntegrationTests {
+
+    private static final int ITEM_COUNT = 1_800;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderProcessingProperties properties;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        properties.getParallel().setThreshold(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Should leave products and notifications exactly as sequential processing does")
+    void shouldMatchSequentialProcessing() {
+        Long sequentialOrderId = createOrder("sequential");
+        Long parallelOrderId = createOrder("parallel");
+
+        Map<NotificationType, Double> before = requestedNotifications();
+        processOrder(sequentialOrderId);
+        Map<NotificationType, Double> afterSequential = requestedNotifications();
+
+        properties.getParallel().setThreshold(1);
+        processOrder(parallelOrderId);
+        Map<NotificationType, Double> afterParallel = requestedNotifications();
+
+        assertEquals(stateOf(sequentialOrderId, "sequential"), stateOf(parallelOrderId, "parallel"));
+        for (NotificationType type : NotificationType.values()) {
+            assertEquals(afterSequential.get(type) - before.get(type), afterParallel.get(type) - afterSequential.get(type),
+                    "Different number of " + type + " notifications");
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to the out-of-stock path when the batched decrement is refused")
+    void shouldFallBackWhenDecrementRefused() {
+        Product product = productRepository.save(new Product(null, 7, 1, ProductType.NORMAL, "Last unit",
+                null, null, null, null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+        double delaysBefore = meterRegistry.counter("notifications.requested", "type", "DELAY").count();
+        properties.getParallel().setThreshold(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.findWithItemsById(orderId).orElseThrow();
+            // Someone else takes the last unit after the order was loaded
+            jdbcTemplate.update("update products set available = 0 where id = ?", product.getId());
+            orderProcessingService.processOrder(order);
+        });
+
+        Product updated = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, updated.getAvailable());
+        assertEquals(delaysBefore + 1, meterRegistry.counter("notifications.requested", "type", "DELAY").count());
+    }
+
+    @Test
+    @DisplayName("Should roll back the whole order when one item fails")
+    void shouldRollBackWholeOrderOnFailure() {
+        Set<Product> products = IntStream.range(0, 50)
+                .mapToObj(i -> productRepository.save(new Product(null, 5, 10, i == 25 ? null : ProductType.NORMAL,
+                        "Rollback item " + i, null, null, null, null)))
+                .collect(Collectors.toCollection(HashSet::new));
+        Long orderId = orderRepository.save(new Order(null, products)).getId();
+        properties.getParallel().setThreshold(1);
+
+        assertThrows(IllegalArgumentException.class, () -> processOrder(orderId));
+
+        List<Integer> stock = products.stream()
+                .map(product -> productRepository.findById(product.getId()).orElseThrow().getAvailable())
+                .toList();
+        assertEquals(List.of(10), stock.stream().distinct().toList());
+    }
+
+    private void processOrder(Long orderId) {
+        transactionTemplate.executeWithoutResult(status ->
+                orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow()));
+    }
+
+    private Long createOrder(String prefix) {
+        LocalDate today = LocalDate.now();
+        List<Function<Integer, Product>> scenarios = List.of(
+                i -> new Product(null, 5, 3, ProductType.NORMAL, null, null, null, null, null),
+                i -> new Product(null, 5, 0, ProductType.NORMAL, null, null, null, null, null),
+                i -> new Product(null, 0, 0, ProductType.NORMAL, null, null, null, null, null),
+                i -> new Product(null, 5, 3, ProductType.SEASONAL, null, null, today.minusDays(10), today.plusDays(10), null),
+                i -> new Product(null, 5, 0, ProductType.SEASONAL, null, null, today.minusDays(10), today.plusDays(10), null),
+                i -> new Product(null, 5, 3, ProductType.SEASONAL, null, null, today.plusDays(10), today.plusDays(40), null),
+                i -> new Product(null, 30, 0, ProductType.SEASONAL, null, null, today.minusDays(10), today.plusDays(10), null),
+                i -> new Product(null, 5, 3, ProductType.EXPIRABLE, null, today.plusDays(10), null, null, null),
+                i -> new Product(null, 5, 3, ProductType.EXPIRABLE, null, today.minusDays(1), null, null, null));
+
+        return transactionTemplate.execute(status -> {
+            List<Product> products = IntStream.range(0, ITEM_COUNT)
+                    .mapToObj(i -> {
+                        Product product = scenarios.get(i % scenarios.size()).apply(i);
+                        product.setName(prefix + " " + i);
+                        return productRepository.save(product);
+                    })
+                    .toList();
+            Order order = orderRepository.save(new Order(null, new HashSet<>(products)));
+            // Quantities of 1 to 4 against a stock of 3 cover whole, partial and refused takes
+            for (int i = 0; i < products.size(); i++) {
+                orderLineRepository.save(new OrderLine(null, order, products.get(i), i / scenarios.size() % 4 + 1));
+            }
+            return order.getId();
+        });
+    }
+
+    private Map<String, List<Integer>> stateOf(Long orderId, String prefix) {
+        return transactionTemplate.execute(status -> orderRepository.findWithItemsById(orderId).orElseThrow()
+                .getItems().stream()
+                .collect(Collectors.toMap(
+                        product -> product.getName().substring(prefix.length()),
+                        product -> List.of(product.getAvailable(), product.getLeadTime()))));
+    }
+
+    private Map<NotificationType, Double> requestedNotifications() {
+        return Arrays.stream(NotificationType.values()).collect(Collectors.toMap(Function.identity(),
+                type -> meterRegistry.counter("notifications.requested", "type", type.name()).count()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.contollers.ProductController;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DisplayName("ProductCache Integration Tests")
+class ProductCacheIntegrationTests {
+
+    @Autowired
+    private ProductController productController;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Should serve the stock left after an order once the order commits")
+    void shouldServeStockLeftAfterOrder() {
+        Product product = productRepository.save(new Product(null, 5, 10, ProductType.NORMAL, "Cached USB Cable",
+                null, null, null, null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+        assertEquals(10, productController.findById(product.getId()).available());
+
+        transactionTemplate.executeWithoutResult(status ->
+                orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow()));
+
+        assertEquals(9, productController.findById(product.getId()).available());
+        assertEquals(9, productController.findByName("Cached USB Cable").available());
+    }
+
+    @Test
+    @DisplayName("Should serve the new lead time of a product delayed by an order")
+    void shouldServeNewLeadTime() {
+        Product product = productRepository.save(new Product(null, 0, 0, ProductType.SEASONAL, "Cached watermelon",
+                null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(30), null));
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+        assertEquals(0, productController.findByName("Cached watermelon").leadTime());
+        transactionTemplate.executeWithoutResult(status -> productRepository.findById(product.getId())
+                .ifPresent(current -> productRepository.save(withLeadTime(current, 4))));
+        // Written behind the cache's back, so still served from memory
+        assertEquals(0, productController.findByName("Cached watermelon").leadTime());
+
+        transactionTemplate.executeWithoutResult(status ->
+                orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow()));
+
+        assertEquals(4, productController.findById(product.getId()).leadTime());
+    }
+
+    private static Product withLeadTime(Product product, int leadTime) {
+        product.setLeadTime(leadTime);
+        return product;
+    }
+}
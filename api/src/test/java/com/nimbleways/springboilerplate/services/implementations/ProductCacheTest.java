@@ -0,0 +1,148 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.ProductCacheProperties;
+import com.nimbleways.springboilerplate.config.StockCacheProperties;
+import com.nimbleways.springboilerplate.dto.product.ProductSnapshot;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("ProductCache Tests")
+class ProductCacheTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductCacheProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProductCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = newProductCache();
+        lenient().when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product("USB Cable", 10)));
+    }
+
+    @Test
+    @DisplayName("Should read a product from the database once and then from memory")
+    void shouldReadThrough() {
+        productCache.findById(PRODUCT_ID);
+        ProductSnapshot snapshot = productCache.findById(PRODUCT_ID).orElseThrow();
+
+        assertEquals(10, snapshot.available());
+        verify(productRepository, times(1)).findById(PRODUCT_ID);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "products", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "products", "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should evict a product right away outside of a transaction")
+    void shouldEvictRightAwayOutsideTransaction() {
+        productCache.findById(PRODUCT_ID);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product("USB Cable", 7)));
+
+        productCache.evict(PRODUCT_ID);
+
+        assertEquals(7, productCache.findById(PRODUCT_ID).orElseThrow().available());
+    }
+
+    @Test
+    @DisplayName("Should hold an eviction back until the transaction completes")
+    void shouldEvictWhenTransactionCompletes() {
+        productCache.findById(PRODUCT_ID);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product("USB Cable", 7)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productCache.evict(PRODUCT_ID);
+            assertEquals(10, productCache.findById(PRODUCT_ID).orElseThrow().available());
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(7, productCache.findById(PRODUCT_ID).orElseThrow().available());
+    }
+
+    @Test
+    @DisplayName("Should look a renamed product up again instead of returning it under its old name")
+    void shouldNotServeRenamedProductUnderOldName() {
+        when(productRepository.findFirstByName("USB Cable")).thenReturn(Optional.of(product("USB Cable", 10)));
+        assertEquals(PRODUCT_ID, productCache.findByName("USB Cable").orElseThrow().id());
+
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product("USB-C Cable", 10)));
+        when(productRepository.findFirstByName("USB Cable")).thenReturn(Optional.empty());
+        productCache.evict(PRODUCT_ID);
+
+        assertEquals(Optional.empty(), productCache.findByName("USB Cable"));
+    }
+
+    @Test
+    @DisplayName("Should read the stock of hot products from the hot stock cache")
+    void shouldOverlayHotStock() {
+        StockCacheProperties stockCacheProperties = new StockCacheProperties();
+        stockCacheProperties.setEnabled(true);
+        stockCacheProperties.getHotProductIds().add(PRODUCT_ID);
+        HotStockCache hotStockCache = new HotStockCache(productRepository, new TransactionTemplate(transactionManager),
+                stockCacheProperties);
+        productCache = new ProductCache(productRepository, hotStockCache, properties, meterRegistry);
+        productCache.findById(PRODUCT_ID);
+
+        hotStockCache.take(PRODUCT_ID, 4);
+
+        assertEquals(6, productCache.findById(PRODUCT_ID).orElseThrow().available());
+    }
+
+    @Test
+    @DisplayName("Should read the database on every lookup when disabled")
+    void shouldReadDatabaseWhenDisabled() {
+        properties.setEnabled(false);
+        productCache = newProductCache();
+
+        productCache.findById(PRODUCT_ID);
+        productCache.findById(PRODUCT_ID);
+
+        verify(productRepository, times(2)).findById(PRODUCT_ID);
+    }
+
+    private ProductCache newProductCache() {
+        HotStockCache hotStockCache = new HotStockCache(productRepository, new TransactionTemplate(transactionManager),
+                new StockCacheProperties());
+        return new ProductCache(productRepository, hotStockCache, properties, meterRegistry);
+    }
+
+    private static Product product(String name, int available) {
+        return new Product(PRODUCT_ID, 5, available, ProductType.NORMAL, name, null, null, null, 0L);
+    }
+}
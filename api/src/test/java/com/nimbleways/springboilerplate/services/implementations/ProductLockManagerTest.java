@@ -0,0 +1,190 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.config.OrderProcessingProperties;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@UnitTest
+@DisplayName("ProductLockManager Tests")
+class ProductLockManagerTest {
+
+    private static final int THREADS = 8;
+
+    private OrderProcessingProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrderProcessingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = new ProductLockManager(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should spread consecutive product ids over distinct stripes")
+    void shouldSpreadConsecutiveIds() {
+        Set<Integer> stripes = LongStream.rangeClosed(1, THREADS)
+                .mapToObj(lockManager::stripeOf)
+                .collect(Collectors.toSet());
+
+        assertEquals(THREADS, stripes.size());
+    }
+
+    @Test
+    @DisplayName("Should let orders on disjoint products hold their locks at the same time")
+    void shouldNotSerializeDisjointOrders() throws Exception {
+        CountDownLatch bothLocked = new CountDownLatch(2);
+        AtomicInteger overlapped = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long productId = 1; productId <= 2; productId++) {
+                List<Long> productIds = List.of(productId);
+                futures.add(executor.submit(() -> lockManager.runLocked(productIds, () -> {
+                    bothLocked.countDown();
+                    try {
+                        if (bothLocked.await(500, TimeUnit.MILLISECONDS)) {
+                            overlapped.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, overlapped.get());
+    }
+
+    @Test
+    @DisplayName("Should keep an order out until the order sharing one of its products released it")
+    void shouldSerializeOrdersSharingProduct() throws Exception {
+        CountDownLatch firstLocked = new CountDownLatch(1);
+        CountDownLatch firstReleased = new CountDownLatch(1);
+        CountDownLatch secondLocked = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.execute(() -> lockManager.runLocked(List.of(1L, 1_000L), () -> {
+                firstLocked.countDown();
+                awaitQuietly(firstReleased);
+            }));
+            assertTrue(firstLocked.await(500, TimeUnit.MILLISECONDS));
+            executor.execute(() -> lockManager.runLocked(List.of(2L, 1_000L), secondLocked::countDown));
+
+            assertFalse(secondLocked.await(100, TimeUnit.MILLISECONDS));
+            firstReleased.countDown();
+            assertTrue(secondLocked.await(500, TimeUnit.MILLISECONDS));
+        } finally {
+            firstReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should neither deadlock nor let two holders in on overlapping products locked in any order")
+    void shouldNotDeadlockOnOverlappingProducts() throws Exception {
+        int[] counters = new int[10];
+        int iterations = 2_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        List<Long> productIds = new ArrayList<>(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L));
+                        Collections.shuffle(productIds, ThreadLocalRandom.current());
+                        List<Long> locked = productIds.subList(0, 3);
+                        lockManager.runLocked(locked, () -> locked.forEach(id -> counters[id.intValue()]++));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        assertEquals(THREADS * iterations * 3, total);
+    }
+
+    @Test
+    @DisplayName("Should fail instead of waiting forever for a product locked elsewhere")
+    void shouldTimeOutWaitingForLock() throws Exception {
+        properties.getLocking().setAcquireTimeout(Duration.ofMillis(50));
+        lockManager = new ProductLockManager(properties, meterRegistry);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(() -> lockManager.runLocked(List.of(1L), () -> {
+                locked.countDown();
+                awaitQuietly(done);
+            }));
+            locked.await();
+
+            assertThrows(IllegalStateException.class, () -> lockManager.runLocked(List.of(2L, 1L), () -> { }));
+            assertEquals(1, meterRegistry.get("orders.locking.timeouts").counter().count());
+        } finally {
+            done.countDown();
+            executor.shutdown();
+        }
+        // Nothing acquired before the timeout is left locked
+        lockManager.runLocked(List.of(2L), () -> { });
+    }
+
+    @Test
+    @DisplayName("Should not lock anything outside of a transaction")
+    void shouldNotLockOutsideTransaction() {
+        assertFalse(lockManager.isActive());
+
+        lockManager.lockUntilCompletion(List.of(1L));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingResult;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingStatus;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DisplayName("Product locking Integration Tests")
+class ProductLockingIntegrationTests {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final int PRODUCTS = 10;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should keep stock exact and avoid conflicts when many orders share products")
+    void shouldKeepStockExactUnderOverlappingOrders() throws Exception {
+        List<Product> products = saveProducts("Overlapping", PRODUCTS, 150);
+        // Every order takes three neighbouring products, so each product is wanted by 120 orders
+        List<Long> orderIds = IntStream.range(0, THREADS * ORDERS_PER_THREAD * PRODUCTS / 10)
+                .mapToObj(i -> saveOrder(Set.of(products.get(i % PRODUCTS), products.get((i + 1) % PRODUCTS),
+                        products.get((i + 2) % PRODUCTS))))
+                .toList();
+        double conflictsBefore = meterRegistry.counter("orders.processing.optimistic_lock.conflicts").count();
+
+        List<OrderProcessingResult> results = processConcurrently(orderIds);
+
+        assertEquals(orderIds.size(), results.stream().filter(r -> r.status() == OrderProcessingStatus.PROCESSED).count());
+        products.forEach(product -> assertEquals(30, availableOf(product), product.getName()));
+        assertEquals(conflictsBefore, meterRegistry.counter("orders.processing.optimistic_lock.conflicts").count());
+    }
+
+    private List<OrderProcessingResult> processConcurrently(List<Long> orderIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<OrderProcessingResult>>> futures = new ArrayList<>();
+            for (Long orderId : orderIds) {
+                futures.add(executor.submit(() -> orderProcessingService.processOrders(List.of(orderId))));
+            }
+            List<OrderProcessingResult> results = new ArrayList<>(orderIds.size());
+            for (Future<List<OrderProcessingResult>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Product> saveProducts(String prefix, int count, int available) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> productRepository.save(new Product(null, 5, available, ProductType.NORMAL,
+                        prefix + " locked " + i, null, null, null, null)))
+                .toList();
+    }
+
+    private Long saveOrder(Set<Product> items) {
+        return orderRepository.save(new Order(null, items)).getId();
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findAvailableById(product.getId()).orElseThrow();
+    }
+}
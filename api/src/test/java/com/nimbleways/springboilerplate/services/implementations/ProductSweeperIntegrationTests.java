@@ -0,0 +1,99 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.notifications.NotificationDispatcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "products.sweep.batch-size=2")
+@DisplayName("ProductSweeper Integration Tests")
+class ProductSweeperIntegrationTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private ProductSweeper productSweeper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @Test
+    @DisplayName("Should zero expired and out-of-season stock in batches and notify each product")
+    void shouldZeroExpiredAndOutOfSeasonStock() {
+        List<Product> expired = IntStream.range(0, 5)
+                .mapToObj(i -> save(new Product(null, 0, 10, ProductType.EXPIRABLE, "Swept expired " + i,
+                        TODAY.minusDays(i), null, null, null)))
+                .toList();
+        Product fresh = save(new Product(null, 0, 10, ProductType.EXPIRABLE, "Swept fresh",
+                TODAY.plusDays(1), null, null, null));
+        Product outOfSeason = save(new Product(null, 5, 10, ProductType.SEASONAL, "Swept out of season",
+                null, TODAY.minusDays(60), TODAY, null));
+        Product inSeason = save(new Product(null, 5, 10, ProductType.SEASONAL, "Swept in season",
+                null, TODAY.minusDays(60), TODAY.plusDays(1), null));
+        Product normal = save(new Product(null, 0, 10, ProductType.NORMAL, "Swept normal",
+                TODAY.minusDays(1), null, null, null));
+
+        DistributionSummary expiredRows = meterRegistry.get("products.sweep.rows").tag("reason", "expired").summary();
+        long runsBefore = expiredRows.count();
+        double rowsBefore = expiredRows.totalAmount();
+
+        ProductSweeper.SweepResult result = productSweeper.sweep();
+
+        assertTrue(result.expired() >= expired.size());
+        assertTrue(result.outOfSeason() >= 1);
+        expired.forEach(product -> {
+            assertEquals(0, availableOf(product));
+            verify(notificationDispatcher).sendExpirationNotification(product.getName(), product.getExpiryDate());
+        });
+        assertEquals(0, availableOf(outOfSeason));
+        verify(notificationDispatcher).sendOutOfStockNotification(outOfSeason.getName());
+        assertEquals(10, availableOf(fresh));
+        assertEquals(10, availableOf(inSeason));
+        assertEquals(10, availableOf(normal));
+        verify(notificationDispatcher, never()).sendExpirationNotification(normal.getName(), normal.getExpiryDate());
+        assertEquals(runsBefore + 1, expiredRows.count());
+        assertEquals(rowsBefore + result.expired(), expiredRows.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should leave nothing to sweep on a second run")
+    void shouldBeIdempotent() {
+        save(new Product(null, 0, 10, ProductType.EXPIRABLE, "Swept twice", TODAY, null, null, null));
+
+        productSweeper.sweep();
+        ProductSweeper.SweepResult second = productSweeper.sweep();
+
+        assertEquals(0, second.expired());
+        assertEquals(0, second.outOfSeason());
+    }
+
+    private Product save(Product product) {
+        return productRepository.save(product);
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findAvailableById(product.getId()).orElseThrow();
+    }
+}
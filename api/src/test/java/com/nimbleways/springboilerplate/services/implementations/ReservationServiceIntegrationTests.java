@@ -0,0 +1,213 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.OrderLine;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ReservationStatus;
+import com.nimbleways.springboilerplate.entities.StockReservation;
+import com.nimbleways.springboilerplate.repositories.OrderLineRepository;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@DisplayName("ReservationService Integration Tests")
+class ReservationServiceIntegrationTests {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        orderId = orderRepository.save(new Order(null, new HashSet<>())).getId();
+    }
+
+    @Test
+    @DisplayName("Should hold the units until the reservation is released")
+    void shouldHoldUnitsUntilReleased() {
+        Product product = saveProduct("Reserved then released", 10);
+
+        StockReservation reservation = reservationService.reserve(orderId, product.getId(), 4, TTL).orElseThrow();
+
+        assertEquals(ReservationStatus.HELD, reservation.getStatus());
+        assertEquals(6, availableOf(product));
+
+        assertTrue(reservationService.release(reservation.getId()));
+        assertFalse(reservationService.release(reservation.getId()));
+        assertFalse(reservationService.confirm(reservation.getId()));
+        assertEquals(10, availableOf(product));
+        assertEquals(ReservationStatus.RELEASED, statusOf(reservation));
+    }
+
+    @Test
+    @DisplayName("Should keep the units of a confirmed reservation")
+    void shouldKeepUnitsOnceConfirmed() {
+        Product product = saveProduct("Reserved then confirmed", 10);
+
+        StockReservation reservation = reservationService.reserve(orderId, product.getId(), 4, TTL).orElseThrow();
+
+        assertTrue(reservationService.confirm(reservation.getId()));
+        assertFalse(reservationService.release(reservation.getId()));
+        assertEquals(6, availableOf(product));
+        assertEquals(ReservationStatus.CONFIRMED, statusOf(reservation));
+    }
+
+    @Test
+    @DisplayName("Should refuse a reservation for more units than are left")
+    void shouldRefuseWhenNotEnoughStock() {
+        Product product = saveProduct("Reserved beyond stock", 3);
+
+        Optional<StockReservation> reservation = reservationService.reserve(orderId, product.getId(), 4, TTL);
+
+        assertTrue(reservation.isEmpty());
+        assertEquals(3, availableOf(product));
+    }
+
+    @Test
+    @DisplayName("Should give the units of an expired reservation back in the background")
+    void shouldReclaimExpiredReservations() throws InterruptedException {
+        Product product = saveProduct("Reserved then abandoned", 10);
+
+        StockReservation reservation = reservationService.reserve(orderId, product.getId(), 4, Duration.ofMillis(200))
+                .orElseThrow();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (statusOf(reservation) == ReservationStatus.HELD && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(ReservationStatus.EXPIRED, statusOf(reservation));
+        assertEquals(10, availableOf(product));
+        assertFalse(reservationService.confirm(reservation.getId()));
+        assertFalse(reservationService.release(reservation.getId()));
+    }
+
+    @Test
+    @DisplayName("Should never reserve more units than available under concurrent checkouts")
+    void shouldNeverOverReserveUnderConcurrentCheckouts() throws Exception {
+        Product product = saveProduct("Reserved concurrently", 50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Optional<StockReservation>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                Callable<Optional<StockReservation>> reserve =
+                        () -> reservationService.reserve(orderId, product.getId(), 1, TTL);
+                futures.add(executor.submit(reserve));
+            }
+            int held = 0;
+            for (Future<Optional<StockReservation>> future : futures) {
+                held += future.get().isPresent() ? 1 : 0;
+            }
+
+            assertEquals(50, held);
+            assertEquals(0, availableOf(product));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should count the reserved units towards the order when it is processed in a batch")
+    void shouldConsumeReservationsWhenProcessingOrders() {
+        Product confirmed = saveProduct("Reserved and confirmed before processing", 10);
+        Product partly = saveProduct("Partly reserved before processing", 10);
+        Product overReserved = saveProduct("Over-reserved before processing", 10);
+        Long orderId = saveOrder(Map.of(confirmed, 4, partly, 3, overReserved, 2));
+        StockReservation kept = reservationService.reserve(orderId, confirmed.getId(), 4, TTL).orElseThrow();
+        assertTrue(reservationService.confirm(kept.getId()));
+        StockReservation held = reservationService.reserve(orderId, partly.getId(), 1, TTL).orElseThrow();
+        StockReservation surplus = reservationService.reserve(orderId, overReserved.getId(), 5, TTL).orElseThrow();
+
+        orderProcessingService.processOrders(List.of(orderId));
+
+        assertEquals(6, availableOf(confirmed));
+        assertEquals(7, availableOf(partly));
+        assertEquals(8, availableOf(overReserved));
+        assertEquals(ReservationStatus.CONSUMED, statusOf(kept));
+        assertEquals(ReservationStatus.CONSUMED, statusOf(held));
+        assertEquals(ReservationStatus.CONSUMED, statusOf(surplus));
+        assertFalse(reservationService.release(held.getId()));
+    }
+
+    @Test
+    @DisplayName("Should count the reserved units towards a single order once")
+    void shouldConsumeReservationsWhenProcessingOneOrder() {
+        Product product = saveProduct("Reserved before processing one order", 10);
+        Long orderId = saveOrder(Map.of(product, 4));
+        StockReservation reservation = reservationService.reserve(orderId, product.getId(), 4, TTL).orElseThrow();
+
+        orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow());
+        orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow());
+
+        // The second run has no reservation left to consume and takes the units itself
+        assertEquals(2, availableOf(product));
+        assertEquals(ReservationStatus.CONSUMED, statusOf(reservation));
+    }
+
+    @Test
+    @DisplayName("Should refuse a reservation for an unknown order without taking units")
+    void shouldRefuseReservationForUnknownOrder() {
+        Product product = saveProduct("Reserved for an unknown order", 10);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> reservationService.reserve(Long.MAX_VALUE, product.getId(), 4, TTL));
+        assertEquals(10, availableOf(product));
+    }
+
+    private Long saveOrder(Map<Product, Integer> quantities) {
+        Order order = orderRepository.save(new Order(null, new HashSet<>(quantities.keySet())));
+        quantities.forEach((product, quantity) -> orderLineRepository.save(new OrderLine(null, order, product, quantity)));
+        return order.getId();
+    }
+
+    private Product saveProduct(String name, int available) {
+        return productRepository.save(new Product(null, 5, available, ProductType.NORMAL, name, null, null, null, null));
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findAvailableById(product.getId()).orElseThrow();
+    }
+
+    private ReservationStatus statusOf(StockReservation reservation) {
+        return reservationService.find(reservation.getId()).orElseThrow().getStatus();
+    }
+}
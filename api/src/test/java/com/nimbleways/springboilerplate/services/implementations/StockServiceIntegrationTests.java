@@ -0,0 +1,115 @@
+package com.nimbleways.springboilerplate.services.implementations;
+
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@DisplayName("StockService Integration Tests")
+class StockServiceIntegrationTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Should never oversell a hot product under concurrent decrements")
+    void shouldNeverOversellUnderConcurrentDecrements() throws Exception {
+        int stock = 100;
+        Product product = productRepository.save(new Product(null, 0, stock, ProductType.NORMAL, "Hot SKU", null, null, null, null));
+
+        List<Boolean> outcomes = runConcurrently(stock * 3, () -> transactionTemplate.execute(status -> {
+            Product current = productRepository.findById(product.getId()).orElseThrow();
+            return current.getAvailable() > 0 && stockService.tryDecrement(current);
+        }));
+
+        assertEquals(stock, outcomes.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, availableOf(product));
+    }
+
+    @Test
+    @DisplayName("Should hand out exactly the stock when concurrent takes of several units exceed it")
+    void shouldHandOutExactlyTheStockUnderConcurrentMultiUnitTakes() throws Exception {
+        int stock = 100;
+        Product product = productRepository.save(new Product(null, 0, stock, ProductType.NORMAL, "Bulk SKU", null, null, null, null));
+
+        List<Integer> taken = runConcurrently(60, () -> transactionTemplate.execute(status ->
+                stockService.take(productRepository.findById(product.getId()).orElseThrow(), 3)));
+
+        assertEquals(stock, taken.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, availableOf(product));
+    }
+
+    @Test
+    @DisplayName("Should not lose decrements when concurrent orders hit the same product")
+    void shouldNotLoseDecrementsForConcurrentOrders() throws Exception {
+        int stock = 1000;
+        int orders = 400;
+        Product product = productRepository.save(new Product(null, 0, stock, ProductType.NORMAL, "Contended SKU", null, null, null, null));
+        List<Long> orderIds = IntStream.range(0, orders)
+                .mapToObj(i -> orderRepository.save(new Order(null, Set.of(product))).getId())
+                .toList();
+
+        Queue<Long> pending = new ConcurrentLinkedQueue<>(orderIds);
+        runConcurrently(orders, () -> {
+            Long orderId = pending.remove();
+            transactionTemplate.executeWithoutResult(status ->
+                    orderProcessingService.processOrder(orderRepository.findWithItemsById(orderId).orElseThrow()));
+            return true;
+        });
+
+        assertEquals(stock - orders, availableOf(product));
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getAvailable();
+    }
+
+    private <T> List<T> runConcurrently(int tasks, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = executor.invokeAll(IntStream.range(0, tasks).mapToObj(i -> task).toList());
+            List<T> results = new ArrayList<>(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
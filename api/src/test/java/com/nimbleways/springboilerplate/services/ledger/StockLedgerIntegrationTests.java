@@ -0,0 +1,115 @@
+package com.nimbleways.springboilerplate.services.ledger;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.implementations.StockService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stock.ledger.settle-lag=0s")
+@DisplayName("StockLedger Integration Tests")
+class StockLedgerIntegrationTests {
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should record the opening, takes, returns and zeroing of a product's stock")
+    void shouldRecordEveryMovement() {
+        Product product = saveProduct("Ledger movements", ProductType.EXPIRABLE, 20);
+
+        transactionTemplate.executeWithoutResult(status -> stockService.tryTake(product, 5));
+        transactionTemplate.executeWithoutResult(status -> stockService.putBack(product.getId(), 2));
+        transactionTemplate.executeWithoutResult(status -> stockService.markUnavailable(product));
+
+        assertEquals(List.of("OPENING", "TAKEN", "RETURNED", "EXPIRED"), movementTypesOf(product));
+        assertEquals(new StockLevel(0, 5), stockLedger.rebuild().get(product.getId()));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the stock of the products table, before and after a snapshot")
+    void shouldRebuildStockAcrossSnapshots() {
+        Product product = saveProduct("Ledger snapshot", ProductType.NORMAL, 50);
+        takeInTransactions(product, 10);
+
+        assertEquals(40, stockLedger.rebuild().get(product.getId()).available());
+        assertTrue(stockLedger.snapshot() > 0);
+        assertEquals(40, stockLedger.rebuild().get(product.getId()).available());
+
+        takeInTransactions(product, 5);
+
+        assertEquals(35, stockLedger.rebuild().get(product.getId()).available());
+        assertEquals(35, availableOf(product));
+        assertTrue(stockLedger.verify().stream().noneMatch(d -> d.productId().equals(product.getId())));
+    }
+
+    @Test
+    @DisplayName("Should replay the stock of the products that moved on a given day")
+    void shouldReplayDay() {
+        Product product = saveProduct("Ledger replay", ProductType.NORMAL, 8);
+        takeInTransactions(product, 3);
+
+        Map<Long, StockLevel> today = stockLedger.replay(LocalDate.now());
+
+        assertEquals(5, today.get(product.getId()).available());
+        assertTrue(stockLedger.replay(LocalDate.now().minusYears(1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not record the movements of a rolled back transaction")
+    void shouldDropMovementsOnRollback() {
+        Product product = saveProduct("Ledger rollback", ProductType.NORMAL, 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockService.tryTake(product, 4);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of("OPENING"), movementTypesOf(product));
+        assertEquals(10, availableOf(product));
+        assertEquals(10, stockLedger.rebuild().get(product.getId()).available());
+    }
+
+    private Product saveProduct(String name, ProductType type, int available) {
+        return productRepository.save(new Product(null, 5, available, type, name, null, null, null, null));
+    }
+
+    private void takeInTransactions(Product product, int times) {
+        for (int i = 0; i < times; i++) {
+            transactionTemplate.executeWithoutResult(status -> stockService.tryTake(product, 1));
+        }
+    }
+
+    private List<String> movementTypesOf(Product product) {
+        return jdbcTemplate.queryForList("select type from stock_movements where product_id = ? order by id",
+                String.class, product.getId());
+    }
+
+    private int availableOf(Product product) {
+        return productRepository.findAvailableById(product.getId()).orElseThrow();
+    }
+}
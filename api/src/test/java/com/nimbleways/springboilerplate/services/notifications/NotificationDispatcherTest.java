@@ -0,0 +1,129 @@
+package com.nimbleways.springboilerplate.services.notifications;
+
+import com.nimbleways.springboilerplate.config.NotificationDispatchProperties;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@UnitTest
+@DisplayName("NotificationDispatcher Tests")
+class NotificationDispatcherTest {
+
+    private final List<NotificationEvent> sent = new CopyOnWriteArrayList<>();
+
+    private NotificationDispatchProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NotificationDispatchProperties();
+        properties.setWorkers(1);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new NotificationDispatcher(sent::add, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+
+    @Test
+    @DisplayName("Should send notifications off the calling thread")
+    void shouldSendNotificationsAsynchronously() {
+        dispatcher.start();
+
+        dispatcher.sendDelayNotification(5, "USB Cable");
+        dispatcher.sendExpirationNotification("Milk", LocalDate.of(2024, 1, 1));
+
+        awaitUntil(() -> sent.size() == 2);
+        assertEquals(List.of(
+                NotificationEvent.delay(5, "USB Cable"),
+                NotificationEvent.expiration("Milk", LocalDate.of(2024, 1, 1))
+        ), sent);
+    }
+
+    @Test
+    @DisplayName("Should send one out-of-stock notice per product within the dedup window")
+    void shouldDeduplicateWithinWindow() {
+        dispatcher.sendOutOfStockNotification("Watermelon");
+        dispatcher.sendOutOfStockNotification("Watermelon");
+        dispatcher.sendOutOfStockNotification("Grapes");
+        dispatcher.sendOutOfStockNotification("Watermelon");
+
+        dispatcher.start();
+
+        awaitUntil(() -> sent.size() == 2 && meterRegistry.counter("notifications.deduplicated").count() == 2.0);
+        assertEquals(List.of(NotificationEvent.outOfStock("Watermelon"), NotificationEvent.outOfStock("Grapes")), sent);
+        assertEquals(2.0, meterRegistry.counter("notifications.deduplicated").count());
+    }
+
+    @Test
+    @DisplayName("Should drop notifications when the queue is full")
+    void shouldDropNotificationsWhenQueueIsFull() {
+        properties.setQueueCapacity(2);
+        dispatcher = new NotificationDispatcher(sent::add, properties, meterRegistry);
+
+        dispatcher.sendOutOfStockNotification("A");
+        dispatcher.sendOutOfStockNotification("B");
+        dispatcher.sendOutOfStockNotification("C");
+
+        assertEquals(2, dispatcher.queueDepth());
+        assertEquals(1.0, meterRegistry.counter("notifications.dropped").count());
+    }
+
+    @Test
+    @DisplayName("Should hold notifications until the transaction commits")
+    void shouldPublishOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.sendOutOfStockNotification("Watermelon");
+            assertEquals(0, dispatcher.queueDepth());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, dispatcher.queueDepth());
+    }
+
+    @Test
+    @DisplayName("Should discard notifications of a rolled back transaction")
+    void shouldDiscardNotificationsOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dispatcher.sendOutOfStockNotification("Watermelon");
+
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, dispatcher.queueDepth());
+        assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        while (!condition.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+    }
+}
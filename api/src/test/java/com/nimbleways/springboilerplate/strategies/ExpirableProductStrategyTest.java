@@ -0,0 +1,64 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("ExpirableProductStrategy Tests")
+class ExpirableProductStrategyTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    @Mock
+    private OrderProcessingContext context;
+
+    private final ExpirableProductStrategy strategy = new ExpirableProductStrategy();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(context.take(any(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    @DisplayName("Should sell a product on the day before it expires")
+    void shouldSellTheDayBeforeExpiry() {
+        assertEquals(ProcessingOutcome.DECREMENTED,
+                strategy.processOrder(expirable(10, TODAY.plusDays(1)), 3, TODAY, context));
+    }
+
+    @Test
+    @DisplayName("Should refuse a product that expires today and leave it to the sweeper")
+    void shouldRefuseOnExpiryDay() {
+        assertEquals(ProcessingOutcome.EXPIRED, strategy.processOrder(expirable(10, TODAY), 3, TODAY, context));
+        verifyNoInteractions(context);
+    }
+
+    @Test
+    @DisplayName("Should notify and mark unavailable a product that is out of stock before it expires")
+    void shouldHandleOutOfStockBeforeExpiry() {
+        Product product = expirable(0, TODAY.plusDays(10));
+
+        assertEquals(ProcessingOutcome.OUT_OF_STOCK, strategy.processOrder(product, 1, TODAY, context));
+        verify(context).sendExpirationNotification(product.getName(), product.getExpiryDate());
+        verify(context).markUnavailable(product);
+    }
+
+    private static Product expirable(int available, LocalDate expiryDate) {
+        return new Product(1L, 0, available, ProductType.EXPIRABLE, "Milk", expiryDate, null, null, 0L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.entities.ProductTypeConverter;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@UnitTest
+@DisplayName("ProductStrategyFactory Tests")
+class ProductStrategyFactoryTest {
+
+    private final NormalProductStrategy normal = new NormalProductStrategy();
+    private final SeasonalProductStrategy seasonal = new SeasonalProductStrategy();
+    private final ExpirableProductStrategy expirable = new ExpirableProductStrategy();
+
+    @Test
+    @DisplayName("Should look up the built-in strategies by their type key")
+    void shouldRegisterBuiltInStrategies() {
+        ProductStrategyFactory factory = new ProductStrategyFactory(List.of(expirable, normal, seasonal));
+
+        assertSame(normal, factory.getStrategy(ProductType.NORMAL));
+        assertSame(seasonal, factory.getStrategy(ProductType.SEASONAL));
+        assertSame(expirable, factory.getStrategy(ProductType.EXPIRABLE));
+        assertThrows(IllegalArgumentException.class, () -> factory.getStrategy(null));
+    }
+
+    @Test
+    @DisplayName("Should add the type of a new strategy so that products of that type can be read")
+    void shouldRegisterNewProductType() {
+        PreOrderStrategy preOrder = new PreOrderStrategy();
+        ProductStrategyFactory factory = new ProductStrategyFactory(List.of(normal, seasonal, expirable, preOrder));
+
+        ProductType type = new ProductTypeConverter(factory).convertToEntityAttribute("pre_order");
+
+        assertEquals(ProductType.valueOf("PRE_ORDER"), type);
+        assertTrue(factory.productTypes().contains(type));
+        assertSame(preOrder, factory.getStrategy(type));
+    }
+
+    @Test
+    @DisplayName("Should keep the types of one factory out of another")
+    void shouldNotShareTypesBetweenFactories() {
+        new ProductStrategyFactory(List.of(normal, seasonal, expirable, new PreOrderStrategy()));
+        ProductStrategyFactory factory = new ProductStrategyFactory(List.of(normal, seasonal, expirable));
+
+        assertEquals(Set.copyOf(ProductType.builtIn()), factory.productTypes());
+        assertThrows(IllegalArgumentException.class, () -> factory.getStrategy(ProductType.valueOf("PRE_ORDER")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProductTypeConverter(factory).convertToEntityAttribute("PRE_ORDER"));
+    }
+
+    @Test
+    @DisplayName("Should fail fast on two strategies for the same type")
+    void shouldFailOnDuplicateStrategy() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyFactory(List.of(normal, seasonal, expirable, new OtherNormalStrategy())));
+
+        assertTrue(exception.getMessage().contains("product type NORMAL"), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fail fast on a built-in type without strategy")
+    void shouldFailOnMissingStrategy() {
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyFactory(List.of(normal, expirable)));
+
+        assertEquals("No strategy registered for product types [SEASONAL]", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should fail fast on a strategy without type key")
+    void shouldFailOnStrategyWithoutKey() {
+        ProductAvailabilityStrategy unkeyed = (product, quantity, today, context) -> ProcessingOutcome.DECREMENTED;
+
+        assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyFactory(List.of(normal, seasonal, expirable, unkeyed)));
+    }
+
+    @Test
+    @DisplayName("Should reject type keys that would not match their stored form")
+    void shouldRejectNonCanonicalTypeKeys() {
+        assertThrows(IllegalArgumentException.class, () -> ProductType.valueOf("pre_order"));
+        assertThrows(IllegalArgumentException.class, () -> ProductType.valueOf(" "));
+        assertThrows(IllegalStateException.class,
+                () -> new ProductStrategyFactory(List.of(normal, seasonal, expirable, new LowerCaseKeyStrategy())));
+    }
+
+    @ProductTypeKey("PRE_ORDER")
+    private static class PreOrderStrategy implements ProductAvailabilityStrategy {
+        @Override
+        public ProcessingOutcome processOrder(Product product, int quantity, LocalDate today, OrderProcessingContext context) {
+            return ProcessingOutcome.DELAYED;
+        }
+    }
+
+    @ProductTypeKey("NORMAL")
+    private static class OtherNormalStrategy extends NormalProductStrategy {
+    }
+
+    @ProductTypeKey("pre_order")
+    private static class LowerCaseKeyStrategy extends PreOrderStrategy {
+    }
+}
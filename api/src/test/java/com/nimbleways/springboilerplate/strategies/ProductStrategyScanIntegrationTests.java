@@ -0,0 +1,70 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import com.nimbleways.plugins.preorder.PreOrderProductStrategy;
+import com.nimbleways.springboilerplate.dto.order.OrderProcessingStatus;
+import com.nimbleways.springboilerplate.entities.Order;
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.repositories.OrderRepository;
+import com.nimbleways.springboilerplate.repositories.ProductRepository;
+import com.nimbleways.springboilerplate.services.OrderProcessingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = "products.strategies.packages=com.nimbleways.plugins.preorder")
+@DisplayName("Product strategy scan Integration Tests")
+class ProductStrategyScanIntegrationTests {
+
+    private static final ProductType PRE_ORDER = ProductType.valueOf("PRE_ORDER");
+
+    @Autowired
+    private ProductStrategyFactory productStrategyFactory;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should register the strategies of a listed package outside the application")
+    void shouldRegisterStrategiesOfListedPackages() {
+        assertInstanceOf(PreOrderProductStrategy.class, productStrategyFactory.getStrategy(PRE_ORDER));
+        assertEquals(4, productStrategyFactory.productTypes().size());
+    }
+
+    @Test
+    @DisplayName("Should read and process products of the type added by the scanned strategy")
+    void shouldProcessProductsOfScannedType() {
+        jdbcTemplate.update("insert into products (name, type, available, lead_time, version)"
+                + " values ('Pre-ordered console', 'pre_order', 10, 30, 0)");
+        Product product = productRepository.findFirstByName("Pre-ordered console").orElseThrow();
+        Long orderId = orderRepository.save(new Order(null, Set.of(product))).getId();
+
+        assertEquals(PRE_ORDER, product.getType());
+        assertEquals(OrderProcessingStatus.PROCESSED,
+                orderProcessingService.processOrders(List.of(orderId)).get(0).status());
+        assertEquals(10, productRepository.findAvailableById(product.getId()).orElseThrow());
+        assertEquals(1, meterRegistry.get("orders.processing.item")
+                .tags("type", "PRE_ORDER", "outcome", "DELAYED").timer().count());
+    }
+}
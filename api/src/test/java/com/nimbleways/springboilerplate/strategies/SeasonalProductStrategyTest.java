@@ -0,0 +1,88 @@
+package com.nimbleways.springboilerplate.strategies;
+
+import com.nimbleways.springboilerplate.entities.Product;
+import com.nimbleways.springboilerplate.entities.ProductType;
+import com.nimbleways.springboilerplate.utils.Annotations.UnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@UnitTest
+@DisplayName("SeasonalProductStrategy Tests")
+class SeasonalProductStrategyTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    @Mock
+    private OrderProcessingContext context;
+
+    private final SeasonalProductStrategy strategy = new SeasonalProductStrategy();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(context.take(any(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    @DisplayName("Should sell on the first and the last day of the season")
+    void shouldSellWithinSeasonBounds() {
+        assertEquals(ProcessingOutcome.DECREMENTED,
+                strategy.processOrder(seasonal(10, TODAY, TODAY.plusDays(1)), 2, TODAY, context));
+        assertEquals(ProcessingOutcome.DECREMENTED,
+                strategy.processOrder(seasonal(10, TODAY.minusDays(30), TODAY.plusDays(1)), 2, TODAY, context));
+    }
+
+    @Test
+    @DisplayName("Should refuse a product whose season ends today and leave it to the sweeper")
+    void shouldRefuseOnSeasonEnd() {
+        ProcessingOutcome outcome = strategy.processOrder(seasonal(10, TODAY.minusDays(30), TODAY), 2, TODAY, context);
+
+        assertEquals(ProcessingOutcome.OUT_OF_SEASON, outcome);
+        verifyNoInteractions(context);
+    }
+
+    @Test
+    @DisplayName("Should notify that a product whose season starts tomorrow is out of stock")
+    void shouldRefuseBeforeSeasonStart() {
+        Product product = seasonal(10, TODAY.plusDays(1), TODAY.plusDays(30));
+
+        assertEquals(ProcessingOutcome.OUT_OF_SEASON, strategy.processOrder(product, 2, TODAY, context));
+        verify(context).sendOutOfStockNotification(product.getName());
+        verify(context, never()).take(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should mark a product unavailable when its restock would arrive after the season")
+    void shouldMarkUnavailableWhenRestockMissesSeason() {
+        Product product = seasonal(0, TODAY.minusDays(30), TODAY.plusDays(5));
+        product.setLeadTime(6);
+
+        assertEquals(ProcessingOutcome.OUT_OF_SEASON, strategy.processOrder(product, 1, TODAY, context));
+        verify(context).markUnavailable(product);
+    }
+
+    @Test
+    @DisplayName("Should delay a product whose restock arrives on the season's last day")
+    void shouldDelayWhenRestockArrivesOnLastDay() {
+        Product product = seasonal(0, TODAY.minusDays(30), TODAY.plusDays(5));
+        product.setLeadTime(5);
+
+        assertEquals(ProcessingOutcome.DELAYED, strategy.processOrder(product, 1, TODAY, context));
+        verify(context).sendDelayNotification(5, product.getName());
+    }
+
+    private static Product seasonal(int available, LocalDate seasonStart, LocalDate seasonEnd) {
+        return new Product(1L, 0, available, ProductType.SEASONAL, "Watermelon", null, seasonStart, seasonEnd, 0L);
+    }
+}